@@ -0,0 +1,77 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker;
+
+import com.shivam.kafka.claimcheck.ClaimCheck;
+import com.shivam.kafka.claimcheck.FileSystemBlobStore;
+import com.shivam.kafka.config.AdaptiveProducerTuner;
+import com.shivam.kafka.config.KafkaConfig;
+import com.shivam.kafka.metrics.EndToEndLatency;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.metrics.StartupReport;
+import com.shivam.kafka.partitioning.HotKeyTracker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Shared setup for the benchmarks.
+ * <p>
+ * Benchmarks build the real {@link KafkaConfig} beans in a minimal
+ * application context, so a change to a factory in KafkaConfig shows up in
+ * the numbers exactly as it would in the application.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+final class BenchmarkSupport {
+
+    static final String BEGINNER_TOPIC = "mastery-beginner-topic";
+    static final String JSON_TOPIC = "mastery-json-topic";
+    static final String ADVANCED_TOPIC = "mastery-advanced-topic";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Starts a single-node embedded broker with the application topics.
+     */
+    static EmbeddedKafkaBroker startBroker() {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaZKBroker(1, false, 3, BEGINNER_TOPIC, JSON_TOPIC,
+                ADVANCED_TOPIC)
+                .brokerProperties(Map.of(
+                        "transaction.state.log.replication.factor", "1",
+                        "transaction.state.log.min.isr", "1"));
+        broker.afterPropertiesSet();
+        return broker;
+    }
+
+    /**
+     * Creates a context containing only the KafkaConfig beans and the metrics
+     * and tuning beans they use (backed by a SimpleMeterRegistry).
+     * 
+     * @param bootstrapServers Broker address (any value works when only mocks
+     *                         are used).
+     * @param properties       Additional properties, e.g. batch sizing.
+     */
+    static AnnotationConfigApplicationContext kafkaContext(String bootstrapServers, Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("bootstrap",
+                Map.of("spring.kafka.bootstrap-servers", bootstrapServers)));
+        // No ProducerSpool here: keep the default max.block.ms unless a benchmark sets it
+        context.getEnvironment().getPropertySources().addLast(new MapPropertySource("benchmark-defaults",
+                Map.of("kafka.spool.enabled", false)));
+        context.registerBean(SimpleMeterRegistry.class);
+        context.register(KafkaMetrics.class, EndToEndLatency.class, LogSampler.class, AdaptiveProducerTuner.class,
+                HotKeyTracker.class, StartupReport.class, FileSystemBlobStore.class, ClaimCheck.class,
+                KafkaConfig.class);
+        context.refresh();
+        return context;
+    }
+}
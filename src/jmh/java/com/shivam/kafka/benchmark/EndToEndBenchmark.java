@@ -0,0 +1,127 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+
+import com.shivam.kafka.beginner.BasicProducer;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+
+/**
+ * End-to-end throughput on an embedded broker: BasicProducer sends to
+ * "mastery-beginner-topic" and a listener container consumes the records.
+ * <p>
+ * "single" mirrors the default record listener (BasicConsumer.consume), "batch"
+ * uses batchListenerContainerFactory (BasicConsumer.consumeBatch). The score is
+ * records/sec through the whole pipeline.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    private static final int RECORDS_PER_INVOCATION = 1_000;
+
+    @Param({ "single", "batch" })
+    public String mode;
+
+    private final AtomicLong consumed = new AtomicLong();
+    private EmbeddedKafkaBroker broker;
+    private AnnotationConfigApplicationContext context;
+    private ConcurrentMessageListenerContainer<String, String> container;
+    private BasicProducer producer;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        broker = BenchmarkSupport.startBroker();
+        context = BenchmarkSupport.kafkaContext(broker.getBrokersAsString(), Map.of());
+
+        producer = new BasicProducer(context.getBean("basicKafkaTemplate", KafkaTemplate.class),
+                context.getBean(KafkaMetrics.class), context.getBean(LogSampler.class));
+
+        String groupId = "benchmark-" + UUID.randomUUID();
+        if ("batch".equals(mode)) {
+            ConcurrentKafkaListenerContainerFactory<String, String> factory = context
+                    .getBean("batchListenerContainerFactory", ConcurrentKafkaListenerContainerFactory.class);
+            container = factory.createContainer(BenchmarkSupport.BEGINNER_TOPIC);
+            container.setupMessageListener(
+                    (BatchMessageListener<String, String>) records -> consumed.addAndGet(records.size()));
+        } else {
+            container = singleRecordFactory(broker.getBrokersAsString())
+                    .createContainer(BenchmarkSupport.BEGINNER_TOPIC);
+            container.setupMessageListener(
+                    (MessageListener<String, String>) record -> consumed.incrementAndGet());
+        }
+        container.getContainerProperties().setGroupId(groupId);
+        container.start();
+        ContainerTestUtils.waitForAssignment(container, 3);
+    }
+
+    /**
+     * Equivalent of the auto-configured factory BasicConsumer.consume runs on.
+     */
+    private static ConcurrentKafkaListenerContainerFactory<String, String> singleRecordFactory(String bootstrap) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(
+                new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer()));
+        return factory;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_INVOCATION)
+    public long produceAndConsume() throws InterruptedException {
+        long target = consumed.get() + RECORDS_PER_INVOCATION;
+        for (int i = 0; i < RECORDS_PER_INVOCATION; i++) {
+            producer.sendMessage("message-" + i);
+        }
+        while (consumed.get() < target) {
+            Thread.sleep(1);
+        }
+        return consumed.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.stop();
+        context.close();
+        broker.destroy();
+    }
+}
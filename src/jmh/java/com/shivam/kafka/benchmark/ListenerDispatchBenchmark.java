@@ -0,0 +1,140 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.mock.MockConsumerFactory;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.shivam.kafka.parallel.KeyOrderedParallelListener;
+
+/**
+ * Listener container dispatch (poll loop, listener invocation, offset
+ * commits) for the KafkaConfig container factories, fed by a
+ * {@link MockConsumer} so the broker is out of the picture.
+ * <p>
+ * "single" uses the record-at-a-time path, "batch" the
+ * batchListenerContainerFactory added for high-volume consumers and
+ * "parallel" the key-ordered parallel listener (64 distinct keys). ioMicros
+ * simulates I/O-bound processing per record.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListenerDispatchBenchmark {
+
+    private static final int RECORDS_PER_INVOCATION = 500;
+    private static final String TOPIC = BenchmarkSupport.BEGINNER_TOPIC;
+
+    @Param({ "single", "batch", "parallel" })
+    public String mode;
+
+    @Param({ "0", "1000" })
+    public int ioMicros;
+
+    private final TopicPartition partition = new TopicPartition(TOPIC, 0);
+    private final AtomicLong processed = new AtomicLong();
+    private AnnotationConfigApplicationContext context;
+    private MockConsumer<String, String> consumer;
+    private ConcurrentMessageListenerContainer<String, String> container;
+    private long nextOffset;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws InterruptedException {
+        context = BenchmarkSupport.kafkaContext("localhost:9092", Map.of());
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = "batch".equals(mode)
+                ? context.getBean("batchListenerContainerFactory", ConcurrentKafkaListenerContainerFactory.class)
+                : context.getBean("advancedListenerContainerFactory", ConcurrentKafkaListenerContainerFactory.class);
+        factory.setConsumerFactory(new MockConsumerFactory<String, String>(() -> consumer));
+
+        container = factory.createContainer(new TopicPartitionOffset(TOPIC, 0, 0L));
+        if ("batch".equals(mode)) {
+            container.setupMessageListener((BatchMessageListener<String, String>) records -> {
+                records.forEach(record -> simulateIo());
+                processed.addAndGet(records.size());
+            });
+        } else {
+            MessageListener<String, String> listener = record -> {
+                simulateIo();
+                processed.incrementAndGet();
+            };
+            if ("parallel".equals(mode)) {
+                container.setupMessageListener(new KeyOrderedParallelListener<String, String>(listener, container,
+                        1000, new FixedBackOff(0L, 0L), (record, ex) -> {
+                        }));
+                container.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            } else {
+                container.setupMessageListener(listener);
+            }
+        }
+        container.start();
+        while (consumer.assignment().isEmpty()) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_INVOCATION)
+    public long dispatch() {
+        long target = processed.get() + RECORDS_PER_INVOCATION;
+        for (int i = 0; i < RECORDS_PER_INVOCATION; i++) {
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, nextOffset++, System.currentTimeMillis(),
+                    TimestampType.CREATE_TIME, 0, 0, "key-" + (i % 64), "message-" + i, new RecordHeaders(), Optional.empty()));
+        }
+        while (processed.get() < target) {
+            Thread.onSpinWait();
+        }
+        return processed.get();
+    }
+
+    private void simulateIo() {
+        if (ioMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ioMicros));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.stop();
+        context.close();
+    }
+}
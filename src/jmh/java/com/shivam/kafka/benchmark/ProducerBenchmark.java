@@ -0,0 +1,117 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.shivam.kafka.advanced.AdvancedProducer;
+import com.shivam.kafka.beginner.BasicProducer;
+import com.shivam.kafka.config.AcksPolicy;
+import com.shivam.kafka.intermediate.JsonProducer;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Producer hot path (template, conversion, serialization, callbacks) without a
+ * broker: every producer is backed by an auto-completing {@link MockProducer}.
+ * <p>
+ * MockProducer keeps every record it was sent (and the transactional one its
+ * transaction lists), so the mocks are cleared after each iteration: the
+ * history would otherwise grow for the whole run, inflating GC cost in later
+ * iterations and eventually running out of memory.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProducerBenchmark {
+
+    private static final String MESSAGE = "benchmark message payload";
+
+    private BasicProducer basicProducer;
+    private JsonProducer jsonProducer;
+    private AdvancedProducer advancedProducer;
+    private User user;
+    private final List<MockProducer<?, ?>> producers = new CopyOnWriteArrayList<>();
+
+    @Setup
+    public void setUp() {
+        KafkaMetrics metrics = new KafkaMetrics(new SimpleMeterRegistry());
+        LogSampler logSampler = new LogSampler(1000);
+
+        MockProducerFactory<String, String> basicFactory = new MockProducerFactory<>(
+                () -> track(new MockProducer<>(true, new StringSerializer(), new StringSerializer())));
+        basicProducer = new BasicProducer(new KafkaTemplate<>(basicFactory), metrics, logSampler);
+
+        MockProducerFactory<String, User> userFactory = new MockProducerFactory<>(
+                () -> track(new MockProducer<>(true, new StringSerializer(), new JsonSerializer<User>())));
+        jsonProducer = new JsonProducer(new KafkaTemplate<>(userFactory), metrics, logSampler);
+
+        MockProducerFactory<String, String> transactionalFactory = new MockProducerFactory<>((transactional, id) -> {
+            MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(),
+                    new StringSerializer());
+            producer.initTransactions();
+            return track(producer);
+        }, "tx-");
+        advancedProducer = new AdvancedProducer(new KafkaTemplate<>(transactionalFactory), metrics,
+                logSampler);
+
+        user = new User(42L, "John", "john@example.com");
+    }
+
+    private <K, V> MockProducer<K, V> track(MockProducer<K, V> producer) {
+        producers.add(producer);
+        return producer;
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        producers.forEach(MockProducer::clear);
+    }
+
+    @Benchmark
+    public Object basicSendMessage() {
+        return basicProducer.sendMessage(MESSAGE).join();
+    }
+
+    @Benchmark
+    public Object basicSendMessageAsync() {
+        return basicProducer.sendMessageAsync(MESSAGE, AcksPolicy.ALL).join();
+    }
+
+    @Benchmark
+    public Object jsonSendUser() {
+        return jsonProducer.sendUser(user).join();
+    }
+
+    @Benchmark
+    public Object advancedSendInTransaction() {
+        return advancedProducer.sendMessageAsync(MESSAGE).join();
+    }
+}
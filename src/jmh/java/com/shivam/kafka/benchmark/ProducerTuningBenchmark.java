@@ -0,0 +1,90 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import com.shivam.kafka.beginner.BasicProducer;
+import com.shivam.kafka.config.AcksPolicy;
+import com.shivam.kafka.config.AdaptiveProducerTuner;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.SendReceipt;
+
+/**
+ * BasicProducer on an embedded broker with each ProducerTuningProfile, with 64
+ * concurrent callers sending 512-byte messages and waiting for the ack.
+ * <p>
+ * Throughput mode gives acked sends/ms; SampleTime mode gives the latency
+ * distribution per send (p0.99 in the JSON output). For "adaptive" the tuner
+ * is evaluated every 2 seconds instead of every 30.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(64)
+@Fork(1)
+public class ProducerTuningBenchmark {
+
+    @Param({ "default", "latency", "balanced", "throughput", "adaptive" })
+    public String profile;
+
+    private EmbeddedKafkaBroker broker;
+    private AnnotationConfigApplicationContext context;
+    private ScheduledExecutorService tunerScheduler;
+    private BasicProducer producer;
+    private String message;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        broker = BenchmarkSupport.startBroker();
+        context = BenchmarkSupport.kafkaContext(broker.getBrokersAsString(),
+                Map.of("kafka.producer.basic.profile", profile));
+        producer = new BasicProducer(context.getBean("basicKafkaTemplate", KafkaTemplate.class),
+                context.getBean(KafkaMetrics.class), context.getBean(LogSampler.class));
+        message = "{\"event\":\"benchmark\",\"payload\":\"" + "abcdefgh".repeat(60) + "\"}";
+        if ("adaptive".equals(profile)) {
+            AdaptiveProducerTuner tuner = context.getBean(AdaptiveProducerTuner.class);
+            tunerScheduler = Executors.newSingleThreadScheduledExecutor();
+            tunerScheduler.scheduleWithFixedDelay(tuner::tune, 2, 2, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public SendReceipt send() {
+        return producer.sendMessageAsync(message, AcksPolicy.ALL).join();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tunerScheduler != null) {
+            tunerScheduler.shutdownNow();
+        }
+        context.close();
+        broker.destroy();
+    }
+}
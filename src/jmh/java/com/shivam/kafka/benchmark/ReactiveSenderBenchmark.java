@@ -0,0 +1,139 @@
+package com.shivam.kafka.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+/**
+ * Blocking KafkaTemplate callers versus the reactive sender, at the same
+ * number of sends in flight, on an embedded broker.
+ * <p>
+ * Each invocation sends 10,000 acknowledged records:
+ * </p>
+ * <ul>
+ * <li>platform: "concurrency" platform threads, each sending and waiting for
+ * the ack (a servlet container without virtual threads).</li>
+ * <li>virtual: the same on virtual threads (the servlet endpoints, with
+ * spring.threads.virtual.enabled).</li>
+ * <li>reactive: one reactive pipeline with kafka.reactive.max-in-flight set
+ * to "concurrency" (the reactive endpoints).</li>
+ * </ul>
+ * <p>
+ * The score is acked records/ms. After each iteration the peak number of
+ * platform (OS) threads of the JVM is printed.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ReactiveSenderBenchmark {
+
+    private static final int RECORDS = 10_000;
+
+    @Param({ "platform", "virtual", "reactive" })
+    public String mode;
+
+    @Param({ "64", "1024" })
+    public int concurrency;
+
+    private EmbeddedKafkaBroker broker;
+    private AnnotationConfigApplicationContext context;
+    private KafkaTemplate<String, String> template;
+    private KafkaSender<String, Object> sender;
+    private ExecutorService executor;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        broker = BenchmarkSupport.startBroker();
+        context = BenchmarkSupport.kafkaContext(broker.getBrokersAsString(),
+                Map.of("kafka.reactive.enabled", true, "kafka.reactive.max-in-flight", concurrency));
+        template = context.getBean("basicKafkaTemplate", KafkaTemplate.class);
+        sender = context.getBean("reactiveKafkaSender", KafkaSender.class);
+        executor = switch (mode) {
+            case "platform" -> Executors.newFixedThreadPool(concurrency);
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            default -> null;
+        };
+    }
+
+    @Setup(Level.Iteration)
+    public void resetThreadCount() {
+        threads.resetPeakThreadCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void send() throws Exception {
+        if (executor == null) {
+            Flux.range(0, RECORDS)
+                    .map(i -> SenderRecord.create(
+                            new ProducerRecord<String, Object>(BenchmarkSupport.BEGINNER_TOPIC, "message-" + i), i))
+                    .as(sender::send)
+                    .blockLast();
+            return;
+        }
+        List<Future<?>> callers = new ArrayList<>(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            int first = c;
+            callers.add(executor.submit(() -> {
+                for (int i = first; i < RECORDS; i += concurrency) {
+                    template.send(BenchmarkSupport.BEGINNER_TOPIC, "message-" + i).join();
+                }
+            }));
+        }
+        for (Future<?> caller : callers) {
+            caller.get();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportThreads() {
+        System.out.printf("%n[mode=%s, concurrency=%d] peak platform threads: %d%n", mode, concurrency,
+                threads.getPeakThreadCount());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        context.close();
+        broker.destroy();
+    }
+}
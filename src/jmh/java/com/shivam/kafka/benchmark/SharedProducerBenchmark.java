@@ -0,0 +1,113 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import com.shivam.kafka.beginner.BasicProducer;
+import com.shivam.kafka.intermediate.JsonProducer;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.User;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * BasicProducer and JsonProducer sending concurrently (16 threads each) on an
+ * embedded broker, with their own producers versus the shared producer
+ * (kafka.producer.shared.enabled).
+ * <p>
+ * The score is acked sends/ms per producer and for the group. At the end of
+ * each iteration the live producers (kafka.producer.instances), producer I/O
+ * threads and reserved buffer memory are printed.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SharedProducerBenchmark {
+
+    private static final long DEFAULT_BUFFER_MEMORY = 32L * 1024 * 1024;
+
+    @Param({ "false", "true" })
+    public boolean shared;
+
+    private EmbeddedKafkaBroker broker;
+    private AnnotationConfigApplicationContext context;
+    private BasicProducer basicProducer;
+    private JsonProducer jsonProducer;
+    private User user;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        broker = BenchmarkSupport.startBroker();
+        context = BenchmarkSupport.kafkaContext(broker.getBrokersAsString(),
+                Map.of("kafka.producer.shared.enabled", shared));
+        KafkaMetrics metrics = context.getBean(KafkaMetrics.class);
+        LogSampler logSampler = context.getBean(LogSampler.class);
+        basicProducer = new BasicProducer(context.getBean("basicKafkaTemplate", KafkaTemplate.class), metrics,
+                logSampler);
+        jsonProducer = new JsonProducer(context.getBean("userKafkaTemplate", KafkaTemplate.class), metrics,
+                logSampler);
+        user = new User(42L, "Benchmark User", "benchmark@example.com");
+    }
+
+    @Benchmark
+    @Group("producers")
+    @GroupThreads(16)
+    public SendResult<String, String> sendString() {
+        return basicProducer.sendMessage("benchmark message").join();
+    }
+
+    @Benchmark
+    @Group("producers")
+    @GroupThreads(16)
+    public SendResult<String, User> sendUser() {
+        return jsonProducer.sendUser(user).join();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportFootprint() {
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        double producers = registry.find("kafka.producer.instances").gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum();
+        long ioThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("kafka-producer-network-thread"))
+                .count();
+        System.out.printf("%n[shared=%s] producers: %.0f, producer I/O threads: %d, buffer memory: %d MB%n",
+                shared, producers, ioThreads, (long) producers * DEFAULT_BUFFER_MEMORY / (1024 * 1024));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        broker.destroy();
+    }
+}
@@ -0,0 +1,73 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import com.shivam.kafka.advanced.AdvancedProducer;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.SendReceipt;
+
+/**
+ * One transaction per request versus coalesced transactions for
+ * AdvancedProducer on an embedded broker, with 32 concurrent callers.
+ * <p>
+ * Throughput mode gives committed sends/sec; SampleTime mode gives the latency
+ * distribution per call (p0.99 in the JSON output).
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class TransactionCoalescingBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean coalescing;
+
+    private EmbeddedKafkaBroker broker;
+    private AnnotationConfigApplicationContext context;
+    private AdvancedProducer producer;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        broker = BenchmarkSupport.startBroker();
+        context = BenchmarkSupport.kafkaContext(broker.getBrokersAsString(), Map.of());
+        producer = new AdvancedProducer(context.getBean("advancedKafkaTemplate", KafkaTemplate.class),
+                context.getBean(KafkaMetrics.class), context.getBean(LogSampler.class), coalescing, 500, 5);
+    }
+
+    @Benchmark
+    public SendReceipt sendInTransaction() {
+        return producer.sendMessageAsync("benchmark message").join();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        broker.destroy();
+    }
+}
@@ -0,0 +1,105 @@
+package com.shivam.kafka.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.shivam.kafka.model.User;
+import com.shivam.kafka.serialization.LazyUserDeserializer;
+import com.shivam.kafka.serialization.UserBinaryDeserializer;
+import com.shivam.kafka.serialization.UserBinarySerializer;
+
+/**
+ * JsonSerializer versus UserBinarySerializer for the User model, and the
+ * LazyUser view ("lazy": binary records read with LazyUserDeserializer).
+ * <p>
+ * Reports ns/op for serialize and deserialize, and bytes/record through the
+ * "bytes" and "records" counters. filterById deserializes and reads only the
+ * id, as a routing or filtering consumer does. Run with "-prof gc" to get the
+ * allocation rate (gc.alloc.rate.norm, bytes per operation).
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerdeBenchmark {
+
+    @Param({ "json", "binary", "lazy" })
+    public String format;
+
+    private Serializer<User> serializer;
+    private Deserializer<User> deserializer;
+    private User user;
+    private byte[] encoded;
+
+    /**
+     * Wire size counters; bytes / records gives the encoded size of one record.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public long bytes;
+        public long records;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            records = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        if ("binary".equals(format)) {
+            serializer = new UserBinarySerializer();
+            deserializer = new UserBinaryDeserializer();
+        } else if ("lazy".equals(format)) {
+            serializer = new UserBinarySerializer();
+            deserializer = new LazyUserDeserializer();
+        } else {
+            serializer = new JsonSerializer<>();
+            deserializer = new JsonDeserializer<>(User.class, false);
+        }
+        user = new User(1_700_000_000_000L, "John Doe", "john.doe@example.com");
+        encoded = serializer.serialize(BenchmarkSupport.JSON_TOPIC, user);
+    }
+
+    @Benchmark
+    public byte[] serialize(WireSize wireSize) {
+        byte[] data = serializer.serialize(BenchmarkSupport.JSON_TOPIC, user);
+        wireSize.bytes += data.length;
+        wireSize.records++;
+        return data;
+    }
+
+    @Benchmark
+    public User deserialize() {
+        return deserializer.deserialize(BenchmarkSupport.JSON_TOPIC, encoded);
+    }
+
+    @Benchmark
+    public long filterById() {
+        return deserializer.deserialize(BenchmarkSupport.JSON_TOPIC, encoded).getId();
+    }
+}
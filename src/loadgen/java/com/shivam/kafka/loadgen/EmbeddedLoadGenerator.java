@@ -0,0 +1,48 @@
+package com.shivam.kafka.loadgen;
+
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker;
+
+import com.shivam.kafka.KafkaMasteryApplication;
+
+/**
+ * Runs the application with the "loadgen" profile against an embedded
+ * single-node broker, so a load test needs no Kafka installation.
+ * <p>
+ * Arguments are passed to the application, e.g.
+ * {@code --kafka.loadgen.rate=5000 --kafka.loadgen.key-distribution=uniform}.
+ * Started by {@code mvn -Ploadgen verify -DskipTests -Dloadgen.args="..."}.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public final class EmbeddedLoadGenerator {
+
+    private EmbeddedLoadGenerator() {
+    }
+
+    public static void main(String[] args) {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaZKBroker(1, false, 3)
+                .brokerProperties(Map.of(
+                        "transaction.state.log.replication.factor", "1",
+                        "transaction.state.log.min.isr", "1"));
+        broker.afterPropertiesSet();
+        try {
+            // LoadGenerator has run and logged its report by the time run() returns
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(KafkaMasteryApplication.class)
+                    .profiles("loadgen")
+                    .properties(
+                            "spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                            "kafka.loadgen.exit=false")
+                    .run(args);
+            SpringApplication.exit(context);
+        } finally {
+            broker.destroy();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.shivam.kafka;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Kafka Mastery Application.
@@ -9,6 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @author Shivam Srivastav
  */
 @SpringBootApplication
+@EnableScheduling
 public class KafkaMasteryApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,213 @@
+package com.shivam.kafka.admission;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Caps the records and bytes in flight (sent but not yet acknowledged) per
+ * topic, in front of the producers.
+ * <p>
+ * Without a cap, a burst fills the producer buffer and send() blocks request
+ * threads for up to max.block.ms, which slows down every caller. Here a send
+ * that does not fit in its topic's budget is rejected at once (the REST layer
+ * answers 429 with Retry-After), or, if the caller is willing to wait, queued
+ * until budget frees up or its deadline passes. Budget is released when the
+ * broker acknowledges the send (or it fails).
+ * </p>
+ * <p>
+ * Budgets default to kafka.admission.max-in-flight-records / -bytes and can
+ * be set per topic with kafka.admission.topics.&lt;topic&gt;.max-in-flight-records
+ * / -bytes. Occupancy is exported as kafka.admission.in.flight.records and
+ * kafka.admission.in.flight.bytes, decisions as kafka.admission.requests and
+ * queueing time as kafka.admission.wait, all per topic.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+public class AdmissionControl {
+
+    private final boolean enabled;
+    private final int defaultMaxRecords;
+    private final int defaultMaxBytes;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+    private final Environment environment;
+    private final MeterRegistry registry;
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    public AdmissionControl(@Value("${kafka.admission.enabled:true}") boolean enabled,
+            @Value("${kafka.admission.max-in-flight-records:10000}") int defaultMaxRecords,
+            @Value("${kafka.admission.max-in-flight-bytes:16777216}") int defaultMaxBytes,
+            @Value("${kafka.admission.max-wait-ms:1000}") long maxWaitMs,
+            @Value("${kafka.admission.retry-after-seconds:1}") long retryAfterSeconds,
+            Environment environment, MeterRegistry registry) {
+        this.enabled = enabled;
+        this.defaultMaxRecords = defaultMaxRecords;
+        this.defaultMaxBytes = defaultMaxBytes;
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+        this.retryAfter = Duration.ofSeconds(retryAfterSeconds);
+        this.environment = environment;
+        this.registry = registry;
+    }
+
+    /**
+     * Runs a send once it fits in the topic's budget, and keeps the budget
+     * until the send completes.
+     * 
+     * @param topic The topic the record is sent to.
+     * @param bytes Estimated size of the record; a record larger than the whole
+     *              budget is admitted alone.
+     * @param wait  How long the caller is willing to queue, as requested by the
+     *              client (capped at kafka.admission.max-wait-ms); zero rejects
+     *              at once.
+     * @param send  Starts the send.
+     * @return the send future, unchanged.
+     * @throws AdmissionRejectedException if the budget did not free up in time.
+     */
+    public <T> CompletableFuture<T> admit(String topic, int bytes, Duration wait,
+            Supplier<CompletableFuture<T>> send) {
+        return admitWithin(topic, bytes, wait.compareTo(maxWait) > 0 ? maxWait : wait, send);
+    }
+
+    /**
+     * Like {@link #admit}, but the wait is not capped at
+     * kafka.admission.max-wait-ms. For waits set by the server rather than the
+     * client, e.g. kafka.admission.bulk-wait-ms.
+     */
+    public <T> CompletableFuture<T> admitWithin(String topic, int bytes, Duration wait,
+            Supplier<CompletableFuture<T>> send) {
+        if (!enabled) {
+            return send.get();
+        }
+        Budget budget = budgets.computeIfAbsent(topic, this::budget);
+        int bytePermits = Math.max(1, Math.min(bytes, budget.maxBytes));
+        if (!budget.acquire(bytePermits, wait)) {
+            budget.rejected.increment();
+            throw new AdmissionRejectedException(topic, retryAfter);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = send.get();
+        } catch (RuntimeException e) {
+            budget.release(bytePermits);
+            throw e;
+        }
+        future.whenComplete((result, ex) -> budget.release(bytePermits));
+        return future;
+    }
+
+    private Budget budget(String topic) {
+        String prefix = "kafka.admission.topics." + topic + ".";
+        Budget budget = new Budget(
+                environment.getProperty(prefix + "max-in-flight-records", Integer.class, defaultMaxRecords),
+                environment.getProperty(prefix + "max-in-flight-bytes", Integer.class, defaultMaxBytes),
+                Counter.builder("kafka.admission.requests")
+                        .description("Sends admitted or rejected by admission control")
+                        .tag("topic", topic)
+                        .tag("result", "admitted")
+                        .register(registry),
+                Counter.builder("kafka.admission.requests")
+                        .description("Sends admitted or rejected by admission control")
+                        .tag("topic", topic)
+                        .tag("result", "rejected")
+                        .register(registry),
+                Timer.builder("kafka.admission.wait")
+                        .description("Time queued sends waited for budget")
+                        .tag("topic", topic)
+                        .register(registry));
+        Gauge.builder("kafka.admission.in.flight.records", budget, Budget::recordsInFlight)
+                .description("Records admitted and not yet acknowledged")
+                .tag("topic", topic)
+                .register(registry);
+        Gauge.builder("kafka.admission.in.flight.bytes", budget, Budget::bytesInFlight)
+                .description("Bytes admitted and not yet acknowledged")
+                .tag("topic", topic)
+                .baseUnit("bytes")
+                .register(registry);
+        return budget;
+    }
+
+    /**
+     * Record and byte permits of one topic. The semaphores are fair, so a
+     * queued large record is not starved by queued small ones.
+     */
+    private static final class Budget {
+
+        private final int maxRecords;
+        private final int maxBytes;
+        private final Semaphore records;
+        private final Semaphore bytes;
+        private final Counter admitted;
+        private final Counter rejected;
+        private final Timer waited;
+
+        Budget(int maxRecords, int maxBytes, Counter admitted, Counter rejected, Timer waited) {
+            this.maxRecords = maxRecords;
+            this.maxBytes = maxBytes;
+            this.records = new Semaphore(maxRecords, true);
+            this.bytes = new Semaphore(maxBytes, true);
+            this.admitted = admitted;
+            this.rejected = rejected;
+            this.waited = waited;
+        }
+
+        boolean acquire(int bytePermits, Duration wait) {
+            if (records.tryAcquire()) {
+                if (bytes.tryAcquire(bytePermits)) {
+                    admitted.increment();
+                    return true;
+                }
+                records.release();
+            }
+            if (wait.isZero() || wait.isNegative()) {
+                return false;
+            }
+            long start = System.nanoTime();
+            try {
+                if (!records.tryAcquire(wait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                long left = wait.toNanos() - (System.nanoTime() - start);
+                if (!bytes.tryAcquire(bytePermits, Math.max(0, left), TimeUnit.NANOSECONDS)) {
+                    records.release();
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waited.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            admitted.increment();
+            return true;
+        }
+
+        void release(int bytePermits) {
+            bytes.release(bytePermits);
+            records.release();
+        }
+
+        int recordsInFlight() {
+            return maxRecords - records.availablePermits();
+        }
+
+        int bytesInFlight() {
+            return maxBytes - bytes.availablePermits();
+        }
+    }
+}
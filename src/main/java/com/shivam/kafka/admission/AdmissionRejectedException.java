@@ -0,0 +1,30 @@
+package com.shivam.kafka.admission;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a send does not fit in the in-flight budget of its topic.
+ * 
+ * @author Shivam Srivastav
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String topic;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String topic, Duration retryAfter) {
+        super("In-flight budget of topic '" + topic + "' exhausted, retry after " + retryAfter.toSeconds() + "s");
+        this.topic = topic;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
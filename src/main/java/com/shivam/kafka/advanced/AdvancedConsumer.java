@@ -3,11 +3,15 @@ package com.shivam.kafka.advanced;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import com.shivam.kafka.metrics.LogSampler;
+
 /**
- * Demonstrates Advanced Kafka Consumer concepts: Retries and Dead Letter Queue
- * (DLQ).
+ * Demonstrates Advanced Kafka Consumer concepts: Non-blocking Retries and Dead
+ * Letter Queue (DLQ).
  * 
  * @author Shivam Srivastav
  */
@@ -16,31 +20,47 @@ public class AdvancedConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(AdvancedConsumer.class);
 
+    private final RetryTierMetrics metrics;
+    private final LogSampler logSampler;
+
+    public AdvancedConsumer(RetryTierMetrics metrics, LogSampler logSampler) {
+        this.metrics = metrics;
+        this.logSampler = logSampler;
+    }
+
     /**
-     * Consumes messages with a custom error handler (Retries + DLQ).
+     * Consumes messages with non-blocking retries (Retry Topics + DLQ).
      * <p>
-     * If processing fails, it will retry 3 times (as configured in KafkaConfig).
-     * If it still fails, the message is sent to "mastery-advanced-topic.DLT".
+     * If processing fails, the message is forwarded to the next retry topic
+     * (1s, 10s, 60s delays as configured in KafkaConfig) and this partition
+     * moves on immediately. The same method consumes the retry topics; after
+     * the last tier the message is sent to "mastery-advanced-topic.DLT".
      * </p>
      */
     @KafkaListener(topics = "mastery-advanced-topic", groupId = "advanced-group", containerFactory = "advancedListenerContainerFactory")
-    public void consume(String message) {
-        log.info("Received message in AdvancedConsumer: {}", message);
+    public void consume(String message, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        if (logSampler.sample()) {
+            log.info("Received message in AdvancedConsumer from '{}': {}", topic, message);
+        }
+        metrics.received(topic);
 
         if (message.contains("error")) {
+            metrics.failed(topic);
             throw new RuntimeException("Simulated processing error!");
         }
 
-        log.info("Successfully processed message: {}", message);
+        metrics.succeeded(topic);
+        log.debug("Successfully processed message: {}", message);
     }
 
     /**
-     * Listens to the Dead Letter Topic (DLT).
-     * This is where failed messages end up.
+     * Handles the Dead Letter Topic (DLT).
+     * This is where messages end up after the last retry tier (registered as
+     * the DLT handler in KafkaConfig.advancedRetryTopicConfiguration).
      */
-    @KafkaListener(topics = "mastery-advanced-topic.DLT", groupId = "dlt-group")
-    public void consumeDLT(String message) {
+    public void consumeDLT(String message, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
         log.warn("Received message in DLT: {}", message);
+        metrics.received(topic);
         // Alerting or manual intervention logic goes here
     }
 }
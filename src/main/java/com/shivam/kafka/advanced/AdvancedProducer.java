@@ -1,12 +1,32 @@
 package com.shivam.kafka.advanced;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.shivam.kafka.config.AcksPolicy;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.SendReceipt;
+
+import jakarta.annotation.PreDestroy;
 
 /**
  * Demonstrates Advanced Kafka Producer concepts: Idempotency and Transactions.
@@ -19,10 +39,41 @@ public class AdvancedProducer {
     private static final Logger log = LoggerFactory.getLogger(AdvancedProducer.class);
 
     private final KafkaTemplate<String, String> advancedKafkaTemplate;
+    private final KafkaMetrics metrics;
+    private final LogSampler logSampler;
+
+    // Transactions block until commit; run them on virtual threads so async
+    // callers are not tied up while waiting for the coordinator.
+    private final ExecutorService transactionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Shares one transaction between concurrent async callers (null when disabled)
+    private final TransactionCoalescer coalescer;
+
+    public AdvancedProducer(KafkaTemplate<String, String> advancedKafkaTemplate, KafkaMetrics metrics,
+            LogSampler logSampler) {
+        this(advancedKafkaTemplate, metrics, logSampler, false, 0, 0);
+    }
 
     @Autowired
-    public AdvancedProducer(@Qualifier("advancedKafkaTemplate") KafkaTemplate<String, String> advancedKafkaTemplate) {
+    public AdvancedProducer(@Qualifier("advancedKafkaTemplate") KafkaTemplate<String, String> advancedKafkaTemplate,
+            KafkaMetrics metrics, LogSampler logSampler,
+            @Value("${kafka.advanced.tx-coalescing.enabled:false}") boolean coalescing,
+            @Value("${kafka.advanced.tx-coalescing.max-records:500}") int coalescingMaxRecords,
+            @Value("${kafka.advanced.tx-coalescing.max-wait-ms:5}") long coalescingMaxWaitMs) {
         this.advancedKafkaTemplate = advancedKafkaTemplate;
+        this.metrics = metrics;
+        this.logSampler = logSampler;
+        this.coalescer = coalescing
+                ? new TransactionCoalescer(advancedKafkaTemplate, metrics, coalescingMaxRecords,
+                        Duration.ofMillis(coalescingMaxWaitMs))
+                : null;
+    }
+
+    /**
+     * @return true when async sends share transactions with other callers.
+     */
+    public boolean isCoalescing() {
+        return coalescer != null;
     }
 
     /**
@@ -38,13 +89,135 @@ public class AdvancedProducer {
     @Transactional
     public void sendMessageInTransaction(String message) {
         String topic = "mastery-advanced-topic";
-        log.info("Sending message in transaction to '{}': {}", topic, message);
+        countOnCompletion();
+        if (logSampler.sample()) {
+            log.info("Sending message in transaction to '{}': {}", topic, message);
+        }
 
-        advancedKafkaTemplate.send(topic, message);
+        metrics.timeSend(topic, () -> advancedKafkaTemplate.send(topic, message));
 
         // Simulate some business logic
         if (message.contains("fail")) {
             throw new RuntimeException("Simulated transaction failure!");
         }
     }
+
+    /**
+     * Counts the current @Transactional transaction as committed or aborted
+     * once it completes.
+     */
+    private void countOnCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    metrics.transactionCommitted();
+                } else {
+                    metrics.transactionAborted();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends a stream of messages in a single transaction.
+     * <p>
+     * Messages are pulled from the iterator and sent one by one as they become
+     * available, so the caller can feed it from a streaming parser. Either all
+     * of them are committed, or (if any message fails) none of them are.
+     * </p>
+     * 
+     * @param messages The messages to send, consumed lazily.
+     * @return the send futures, all completed once the transaction has
+     *         committed.
+     */
+    public List<CompletableFuture<SendResult<String, String>>> sendMessagesInTransaction(Iterator<String> messages) {
+        String topic = "mastery-advanced-topic";
+        return metrics.countTransaction(() -> advancedKafkaTemplate.executeInTransaction(operations -> {
+            List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>();
+            while (messages.hasNext()) {
+                String message = messages.next();
+                futures.add(metrics.timeSend(topic, () -> operations.send(topic, message)));
+
+                // Same business rule as the single-message path
+                if (message.contains("fail")) {
+                    throw new RuntimeException("Simulated transaction failure!");
+                }
+            }
+            log.info("Committing transaction with {} messages to '{}'", futures.size(), topic);
+            return futures;
+        }));
+    }
+
+    /**
+     * Sends a message transactionally without blocking the caller.
+     * <p>
+     * The returned future completes only after the transaction has committed,
+     * so the receipt never describes a record that could still be rolled back.
+     * Transactional producers always use acks=all. With
+     * kafka.advanced.tx-coalescing.enabled=true, concurrent calls share a
+     * transaction (see {@link TransactionCoalescer}).
+     * </p>
+     * 
+     * @param message The message content to send.
+     * @return a future completed with partition, offset and latency of the
+     *         committed record.
+     */
+    public CompletableFuture<SendReceipt> sendMessageAsync(String message) {
+        return sendMessageAsync(null, message);
+    }
+
+    /**
+     * Keyed variant of {@link #sendMessageAsync(String)}; messages with the same
+     * key go to the same partition, in order.
+     * 
+     * @param key     The record key, or null to spread messages over partitions.
+     * @param message The message content to send.
+     * @return a future completed with partition, offset and latency of the
+     *         committed record.
+     */
+    public CompletableFuture<SendReceipt> sendMessageAsync(String key, String message) {
+        String topic = "mastery-advanced-topic";
+        long start = System.nanoTime();
+        if (coalescer != null) {
+            return sendCoalesced(topic, key, message, start);
+        }
+        return CompletableFuture.supplyAsync(() -> metrics.countTransaction(
+                () -> advancedKafkaTemplate.executeInTransaction(operations -> {
+                    CompletableFuture<SendResult<String, String>> future = metrics.timeSend(topic,
+                            () -> operations.send(topic, key, message));
+
+                    // Same business rule as the synchronous path
+                    if (message.contains("fail")) {
+                        throw new RuntimeException("Simulated transaction failure!");
+                    }
+                    return future;
+                })), transactionExecutor)
+                .thenCompose(future -> future)
+                .thenApply(result -> SendReceipt.of(result.getRecordMetadata(), AcksPolicy.ALL.acks(), start));
+    }
+
+    /**
+     * Coalesced variant: the business logic runs first, on the caller's thread,
+     * so a failing caller is rejected before it can join a shared transaction.
+     */
+    private CompletableFuture<SendReceipt> sendCoalesced(String topic, String key, String message, long start) {
+        if (message.contains("fail")) {
+            return CompletableFuture.failedFuture(new RuntimeException("Simulated transaction failure!"));
+        }
+        return metrics.timeSend(topic, () -> coalescer.submit(List.of(new ProducerRecord<>(topic, key, message))))
+                .thenApply(results -> SendReceipt.of(results.get(0).getRecordMetadata(), AcksPolicy.ALL.acks(),
+                        start));
+    }
+
+    @PreDestroy
+    void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+        transactionExecutor.shutdown();
+    }
 }
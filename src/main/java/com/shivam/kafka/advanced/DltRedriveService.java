@@ -0,0 +1,364 @@
+package com.shivam.kafka.advanced;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import com.shivam.kafka.model.DltRecord;
+import com.shivam.kafka.model.RedriveStatus;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Inspects and replays records from "mastery-advanced-topic.DLT".
+ * <p>
+ * A redrive reads the DLT with its own consumer group ("dlt-redrive-" + name)
+ * and replays it in batches. Each batch is sent in a Kafka transaction that
+ * also commits the group's DLT offsets, so a batch is either replayed and
+ * marked done, or neither. An interrupted redrive started again under the
+ * same name resumes after the last committed batch instead of re-sending
+ * everything.
+ * </p>
+ * <p>
+ * A run stops at the DLT end offsets captured when it started, so records
+ * that fail again and come back to the DLT are not replayed in a loop.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Service
+public class DltRedriveService {
+
+    private static final Logger log = LoggerFactory.getLogger(DltRedriveService.class);
+
+    static final String DLT_TOPIC = "mastery-advanced-topic.DLT";
+
+    /** Added to replayed records: "dlt-topic-partition@offset" they came from. */
+    public static final String REDRIVE_SOURCE_HEADER = "x-dlt-redrive-source";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final int MAX_EMPTY_POLLS = 10;
+
+    private final ConsumerFactory<String, String> dltConsumerFactory;
+    private final KafkaTemplate<String, String> advancedKafkaTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "dlt-redrive"));
+    private volatile RedriveJob current;
+
+    public DltRedriveService(@Qualifier("dltConsumerFactory") ConsumerFactory<String, String> dltConsumerFactory,
+            @Qualifier("advancedKafkaTemplate") KafkaTemplate<String, String> advancedKafkaTemplate) {
+        this.dltConsumerFactory = dltConsumerFactory;
+        this.advancedKafkaTemplate = advancedKafkaTemplate;
+    }
+
+    /**
+     * Reads DLT records without affecting any consumer group.
+     * 
+     * @param partition       Only this partition (all when null).
+     * @param fromOffset      First offset to return, inclusive (log start when
+     *                        null).
+     * @param toOffset        Last offset to return, inclusive (log end when
+     *                        null).
+     * @param exceptionFilter Only records whose exception class or message
+     *                        contains this text (all when null).
+     * @param limit           Maximum number of records to return.
+     */
+    public List<DltRecord> inspect(Integer partition, Long fromOffset, Long toOffset, String exceptionFilter,
+            int limit) {
+        List<DltRecord> result = new ArrayList<>();
+        try (Consumer<String, String> consumer = dltConsumerFactory.createConsumer(null, "-dlt-inspect")) {
+            List<TopicPartition> partitions = partitions(consumer, partition);
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            for (TopicPartition tp : partitions) {
+                long from = Math.max(fromOffset == null ? 0L : fromOffset, beginning.get(tp));
+                long to = Math.min(toOffset == null ? Long.MAX_VALUE : toOffset + 1, end.get(tp));
+                if (from >= to) {
+                    continue;
+                }
+                consumer.assign(List.of(tp));
+                consumer.seek(tp, from);
+                int emptyPolls = 0;
+                while (consumer.position(tp) < to && result.size() < limit && emptyPolls < MAX_EMPTY_POLLS) {
+                    ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                    emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+                    for (ConsumerRecord<String, String> record : records.records(tp)) {
+                        if (record.offset() >= to || result.size() >= limit) {
+                            break;
+                        }
+                        if (matches(record, exceptionFilter)) {
+                            result.add(toDltRecord(record));
+                        }
+                    }
+                }
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts replaying the DLT in the background.
+     * 
+     * @param name            Redrive name; a redrive with the same name resumes
+     *                        where the previous one stopped.
+     * @param targetTopic     Topic to replay to.
+     * @param ratePerSecond   Maximum records per second.
+     * @param batchSize       Records per transaction.
+     * @param exceptionFilter Only replay records whose exception matches (others
+     *                        are skipped and marked done for this name).
+     * @throws IllegalStateException if a redrive is already running.
+     */
+    public synchronized RedriveStatus start(String name, String targetTopic, double ratePerSecond, int batchSize,
+            String exceptionFilter) {
+        RedriveJob running = current;
+        if (running != null && running.isRunning()) {
+            throw new IllegalStateException("Redrive '" + running.name + "' is already running");
+        }
+        RedriveJob job = new RedriveJob(name, targetTopic, ratePerSecond, batchSize, exceptionFilter);
+        current = job;
+        executor.submit(job);
+        return job.status();
+    }
+
+    public Optional<RedriveStatus> status() {
+        RedriveJob job = current;
+        return job == null ? Optional.empty() : Optional.of(job.status());
+    }
+
+    /**
+     * Asks the running redrive to stop after its current batch.
+     */
+    public Optional<RedriveStatus> stop() {
+        RedriveJob job = current;
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.stopRequested = true;
+        return Optional.of(job.status());
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        stop();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static List<TopicPartition> partitions(Consumer<String, String> consumer, Integer partition) {
+        if (partition != null) {
+            return List.of(new TopicPartition(DLT_TOPIC, partition));
+        }
+        return consumer.partitionsFor(DLT_TOPIC).stream()
+                .map(info -> new TopicPartition(DLT_TOPIC, info.partition()))
+                .toList();
+    }
+
+    private static boolean matches(ConsumerRecord<String, String> record, String exceptionFilter) {
+        if (exceptionFilter == null || exceptionFilter.isBlank()) {
+            return true;
+        }
+        String exceptionClass = header(record, KafkaHeaders.DLT_EXCEPTION_FQCN);
+        String exceptionMessage = header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE);
+        return (exceptionClass != null && exceptionClass.contains(exceptionFilter))
+                || (exceptionMessage != null && exceptionMessage.contains(exceptionFilter));
+    }
+
+    private static DltRecord toDltRecord(ConsumerRecord<String, String> record) {
+        return new DltRecord(record.partition(), record.offset(), record.timestamp(), record.key(), record.value(),
+                header(record, KafkaHeaders.DLT_ORIGINAL_TOPIC),
+                header(record, KafkaHeaders.DLT_EXCEPTION_FQCN),
+                header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the record for replay, dropping the DLT and retry-topic headers so
+     * the replayed record starts the retry pipeline from the beginning.
+     */
+    private static ProducerRecord<String, String> toRedriveRecord(ConsumerRecord<String, String> record,
+            String targetTopic) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith("kafka_dlt-") && !header.key().startsWith("retry_topic-")) {
+                headers.add(header);
+            }
+        }
+        String source = record.topic() + "-" + record.partition() + "@" + record.offset();
+        headers.add(REDRIVE_SOURCE_HEADER, source.getBytes(StandardCharsets.UTF_8));
+        return new ProducerRecord<>(targetTopic, null, record.key(), record.value(), headers);
+    }
+
+    private final class RedriveJob implements Runnable {
+
+        private final String name;
+        private final String targetTopic;
+        private final double ratePerSecond;
+        private final int batchSize;
+        private final String exceptionFilter;
+        private final long nanosPerRecord;
+
+        private final AtomicLong redriven = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final Map<Integer, Long> positions = new TreeMap<>();
+        private final Map<Integer, Long> endOffsets = new TreeMap<>();
+        private volatile String state = "RUNNING";
+        private volatile String error;
+        private volatile boolean stopRequested;
+        private long nextSendNanos;
+
+        RedriveJob(String name, String targetTopic, double ratePerSecond, int batchSize, String exceptionFilter) {
+            this.name = name;
+            this.targetTopic = targetTopic;
+            this.ratePerSecond = ratePerSecond;
+            this.batchSize = batchSize;
+            this.exceptionFilter = exceptionFilter;
+            this.nanosPerRecord = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        }
+
+        boolean isRunning() {
+            return "RUNNING".equals(state);
+        }
+
+        @Override
+        public void run() {
+            Properties overrides = new Properties();
+            overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+            try (Consumer<String, String> consumer = dltConsumerFactory.createConsumer("dlt-redrive-" + name, null,
+                    "-dlt-redrive", overrides)) {
+                List<TopicPartition> partitions = partitions(consumer, null);
+                consumer.assign(partitions);
+                Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+                Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+                for (TopicPartition tp : partitions) {
+                    OffsetAndMetadata resumeFrom = committed.get(tp);
+                    if (resumeFrom != null) {
+                        consumer.seek(tp, resumeFrom.offset());
+                    } else {
+                        consumer.seekToBeginning(List.of(tp));
+                    }
+                }
+                synchronized (this) {
+                    end.forEach((tp, offset) -> endOffsets.put(tp.partition(), offset));
+                }
+                log.info("Starting DLT redrive '{}' to '{}' at {} records/sec", name, targetTopic, ratePerSecond);
+
+                while (!stopRequested && !caughtUp(consumer, end)) {
+                    ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                    if (!records.isEmpty()) {
+                        replay(consumer, records, end);
+                    }
+                }
+                state = stopRequested ? "STOPPED" : "COMPLETED";
+                log.info("DLT redrive '{}' {}: {} records replayed, {} skipped", name, state, redriven.get(),
+                        skipped.get());
+            } catch (Exception e) {
+                error = e.getMessage();
+                state = "FAILED";
+                log.error("DLT redrive '{}' failed, it can be resumed by starting it again", name, e);
+            }
+        }
+
+        private boolean caughtUp(Consumer<String, String> consumer, Map<TopicPartition, Long> end) {
+            boolean caughtUp = true;
+            for (Map.Entry<TopicPartition, Long> entry : end.entrySet()) {
+                long position = consumer.position(entry.getKey());
+                synchronized (this) {
+                    positions.put(entry.getKey().partition(), position);
+                }
+                caughtUp &= position >= entry.getValue();
+            }
+            return caughtUp;
+        }
+
+        private void replay(Consumer<String, String> consumer, ConsumerRecords<String, String> records,
+                Map<TopicPartition, Long> end) {
+            List<ProducerRecord<String, String>> batch = new ArrayList<>(records.count());
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            long filtered = 0;
+            for (ConsumerRecord<String, String> record : records) {
+                TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+                if (record.offset() >= end.get(tp)) {
+                    // Dead-lettered after this run started; left for the next run
+                    continue;
+                }
+                offsets.put(tp, new OffsetAndMetadata(record.offset() + 1));
+                if (matches(record, exceptionFilter)) {
+                    batch.add(toRedriveRecord(record, targetTopic));
+                } else {
+                    filtered++;
+                }
+            }
+            if (offsets.isEmpty()) {
+                return;
+            }
+            throttle(batch.size());
+            advancedKafkaTemplate.executeInTransaction(operations -> {
+                batch.forEach(operations::send);
+                operations.sendOffsetsToTransaction(offsets, consumer.groupMetadata());
+                return null;
+            });
+            redriven.addAndGet(batch.size());
+            skipped.addAndGet(filtered);
+        }
+
+        /**
+         * Paces batches so that, on average, no more than ratePerSecond records
+         * are sent.
+         */
+        private void throttle(int records) {
+            long now = System.nanoTime();
+            if (nextSendNanos < now) {
+                nextSendNanos = now;
+            }
+            long waitNanos = nextSendNanos - now;
+            nextSendNanos += records * nanosPerRecord;
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopRequested = true;
+                }
+            }
+        }
+
+        synchronized RedriveStatus status() {
+            return new RedriveStatus(name, state, targetTopic, ratePerSecond, redriven.get(), skipped.get(),
+                    Map.copyOf(positions), Map.copyOf(endOffsets), error);
+        }
+    }
+}
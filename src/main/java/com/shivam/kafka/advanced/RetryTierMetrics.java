@@ -0,0 +1,80 @@
+package com.shivam.kafka.advanced;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-tier counters for the advanced retry pipeline.
+ * <p>
+ * Each topic of the pipeline is a tier: "main" for mastery-advanced-topic,
+ * "retry-1000", "retry-10000", ... for the retry topics and "dlt" for the
+ * dead letter topic. For every tier we count records received, processed
+ * successfully and failed (i.e. forwarded to the next tier).
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+public class RetryTierMetrics {
+
+    private static final String MAIN_TOPIC = "mastery-advanced-topic";
+
+    private final MeterRegistry registry;
+    private final Map<String, TierCounters> tiers = new ConcurrentHashMap<>();
+
+    public RetryTierMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void received(String topic) {
+        tier(topic).received().increment();
+    }
+
+    public void succeeded(String topic) {
+        tier(topic).succeeded().increment();
+    }
+
+    public void failed(String topic) {
+        tier(topic).failed().increment();
+    }
+
+    private TierCounters tier(String topic) {
+        return tiers.computeIfAbsent(topic, t -> {
+            String tier = tierName(t);
+            return new TierCounters(
+                    counter("received", t, tier),
+                    counter("succeeded", t, tier),
+                    counter("failed", t, tier));
+        });
+    }
+
+    private Counter counter(String outcome, String topic, String tier) {
+        return Counter.builder("kafka.retry.tier.records")
+                .description("Records handled per tier of the advanced retry pipeline")
+                .tag("topic", topic)
+                .tag("tier", tier)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    static String tierName(String topic) {
+        if (topic.equals(MAIN_TOPIC)) {
+            return "main";
+        }
+        if (topic.endsWith(".DLT")) {
+            return "dlt";
+        }
+        if (topic.startsWith(MAIN_TOPIC + "-")) {
+            return topic.substring(MAIN_TOPIC.length() + 1);
+        }
+        return topic;
+    }
+
+    private record TierCounters(Counter received, Counter succeeded, Counter failed) {
+    }
+}
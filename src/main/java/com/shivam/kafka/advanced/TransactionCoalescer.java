@@ -0,0 +1,168 @@
+package com.shivam.kafka.advanced;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import com.shivam.kafka.metrics.KafkaMetrics;
+
+/**
+ * Groups concurrent transactional sends into shared Kafka transactions.
+ * <p>
+ * Every transaction costs coordinator round-trips (AddPartitionsToTxn,
+ * EndTxn) plus a commit marker per partition. Instead of paying that per
+ * caller, submitted sends are queued and a single worker commits them
+ * together once {@code maxRecords} are waiting or {@code maxWait} has passed
+ * since the first one arrived.
+ * </p>
+ * <p>
+ * Each caller keeps all-or-nothing semantics for its own records: its future
+ * completes only after the shared transaction has committed. If the shared
+ * transaction fails, every caller in it is retried in its own transaction, so
+ * one bad caller cannot take the others down with it.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public class TransactionCoalescer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionCoalescer.class);
+
+    private final KafkaTemplate<String, String> template;
+    private final KafkaMetrics metrics;
+    private final int maxRecords;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingSend> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * @param template   A transactional template.
+     * @param metrics    Counts the shared transactions.
+     * @param maxRecords Commit as soon as this many records are waiting.
+     * @param maxWait    Commit at the latest this long after the first record of
+     *                   a transaction was submitted.
+     */
+    public TransactionCoalescer(KafkaTemplate<String, String> template, KafkaMetrics metrics, int maxRecords,
+            Duration maxWait) {
+        this.template = template;
+        this.metrics = metrics;
+        this.maxRecords = maxRecords;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.worker = Thread.ofPlatform().name("tx-coalescer").daemon().start(this::run);
+    }
+
+    /**
+     * Queues records to be committed together, in a transaction that may be
+     * shared with other callers.
+     * 
+     * @return a future completed with the send results once the records are
+     *         committed, or exceptionally if they were rolled back.
+     */
+    public CompletableFuture<List<SendResult<String, String>>> submit(List<ProducerRecord<String, String>> records) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Transaction coalescer is closed"));
+        }
+        PendingSend pending = new PendingSend(records, new CompletableFuture<>());
+        queue.add(pending);
+        // Closed in the meantime: the worker may already have drained the
+        // queue. If the send is still there, nobody else will complete it
+        if (!running && queue.remove(pending)) {
+            pending.result().completeExceptionally(new IllegalStateException("Transaction coalescer is closed"));
+        }
+        return pending.result();
+    }
+
+    private void run() {
+        List<PendingSend> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int records = first.records().size();
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (records < maxRecords) {
+                    long remaining = deadline - System.nanoTime();
+                    // Past the deadline, still take whatever is already queued
+                    PendingSend next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    records += next.records().size();
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        PendingSend leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result().completeExceptionally(new IllegalStateException("Transaction coalescer is closed"));
+        }
+    }
+
+    private void commit(List<PendingSend> batch) {
+        try {
+            List<List<CompletableFuture<SendResult<String, String>>>> futures = metrics.countTransaction(
+                    () -> template.executeInTransaction(operations -> {
+                        List<List<CompletableFuture<SendResult<String, String>>>> all = new ArrayList<>(
+                                batch.size());
+                        for (PendingSend pending : batch) {
+                            List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(
+                                    pending.records().size());
+                            for (ProducerRecord<String, String> record : pending.records()) {
+                                sends.add(operations.send(record));
+                            }
+                            all.add(sends);
+                        }
+                        return all;
+                    }));
+            log.debug("Committed coalesced transaction for {} callers", batch.size());
+            // The transaction has committed, so every send future is already complete
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(futures.get(i).stream().map(CompletableFuture::join).toList());
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            log.warn("Coalesced transaction for {} callers failed, retrying each in its own transaction",
+                    batch.size(), e);
+            for (PendingSend pending : batch) {
+                commit(List.of(pending));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record PendingSend(List<ProducerRecord<String, String>> records,
+            CompletableFuture<List<SendResult<String, String>>> result) {
+    }
+}
@@ -1,10 +1,16 @@
 package com.shivam.kafka.beginner;
 
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import com.shivam.kafka.metrics.LogSampler;
+
 /**
  * Demonstrates a basic Kafka Consumer.
  * <p>
@@ -20,18 +26,65 @@ public class BasicConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(BasicConsumer.class);
 
+    private final LogSampler logSampler;
+
+    public BasicConsumer(LogSampler logSampler) {
+        this.logSampler = logSampler;
+    }
+
     /**
      * Listens to the "mastery-beginner-topic".
      * <p>
      * groupId: Overrides the default group ID from properties if needed.
      * Here we use "beginner-group" to isolate this consumer.
+     * Only started when batch mode is disabled (kafka.batch.enabled=false).
      * </p>
      * 
      * @param message The received message.
      */
-    @KafkaListener(topics = "mastery-beginner-topic", groupId = "beginner-group")
+    @KafkaListener(topics = "mastery-beginner-topic", groupId = "beginner-group", autoStartup = "#{!${kafka.batch.enabled:false}}")
     public void consume(String message) {
-        log.info("Received message from 'mastery-beginner-topic': {}", message);
+        if (logSampler.sample()) {
+            log.info("Received message from 'mastery-beginner-topic': {}", message);
+        }
+        process(message);
+    }
+
+    /**
+     * Batch variant of {@link #consume(String)}, started when
+     * kafka.batch.enabled=true.
+     * <p>
+     * A whole poll is delivered in one call, so dispatch, logging and offset
+     * commits happen once per batch instead of once per record. If a record
+     * fails, a {@link BatchListenerFailedException} tells the error handler which
+     * index failed: the records before it are committed and only the failed
+     * record onwards is redelivered.
+     * </p>
+     * 
+     * @param records The records returned by a single poll.
+     */
+    @KafkaListener(topics = "mastery-beginner-topic", groupId = "beginner-group", containerFactory = "batchListenerContainerFactory", autoStartup = "${kafka.batch.enabled:false}")
+    public void consumeBatch(List<ConsumerRecord<String, String>> records) {
+        log.info("Received batch of {} records from 'mastery-beginner-topic'", records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            if (record.value() == null) {
+                // Claim-check payload that could not be read (see ErrorHandlingDeserializer)
+                log.warn("Skipping undeserializable record at {}-{}@{}", record.topic(), record.partition(),
+                        record.offset());
+                continue;
+            }
+            try {
+                process(record.value());
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException(
+                        "Failed to process record at offset " + record.offset(), e, i);
+            }
+        }
+    }
+
+    private void process(String message) {
+        log.debug("Processing message: {}", message);
         // In a real application, you would process the message here.
     }
 }
@@ -1,11 +1,25 @@
 package com.shivam.kafka.beginner;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import com.shivam.kafka.config.AcksPolicy;
+import com.shivam.kafka.config.AcksTemplates;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.SendReceipt;
+import com.shivam.kafka.spool.ProducerSpool;
+
+import jakarta.annotation.PreDestroy;
+
 /**
  * Demonstrates a basic Kafka Producer.
  * <p>
@@ -20,25 +34,78 @@ public class BasicProducer {
 
     private static final Logger log = LoggerFactory.getLogger(BasicProducer.class);
 
+    private static final String TOPIC = "mastery-beginner-topic";
+
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final AcksTemplates<String> acksTemplates;
+    private final KafkaMetrics metrics;
+    private final LogSampler logSampler;
+
+    // Keeps sends while the broker is unreachable (null when disabled)
+    private final ProducerSpool spool;
+
+    public BasicProducer(KafkaTemplate<String, String> kafkaTemplate, KafkaMetrics metrics, LogSampler logSampler) {
+        this(kafkaTemplate, metrics, logSampler, null);
+    }
 
     @Autowired
     public BasicProducer(
-            @org.springframework.beans.factory.annotation.Qualifier("basicKafkaTemplate") KafkaTemplate<String, String> kafkaTemplate) {
+            @org.springframework.beans.factory.annotation.Qualifier("basicKafkaTemplate") KafkaTemplate<String, String> kafkaTemplate,
+            KafkaMetrics metrics, LogSampler logSampler, ObjectProvider<ProducerSpool> spool) {
         this.kafkaTemplate = kafkaTemplate;
+        this.acksTemplates = new AcksTemplates<>(kafkaTemplate);
+        this.metrics = metrics;
+        this.logSampler = logSampler;
+        this.spool = spool != null ? spool.getIfAvailable() : null;
     }
 
     /**
      * Sends a message to the "mastery-beginner-topic".
      * 
      * @param message The message content to send.
+     * @return a future that completes when the broker acknowledges the record.
      */
-    public void sendMessage(String message) {
-        String topicName = "mastery-beginner-topic";
-        log.info("Sending message to topic '{}': {}", topicName, message);
+    public CompletableFuture<SendResult<String, String>> sendMessage(String message) {
+        return sendMessage(null, message);
+    }
+
+    /**
+     * Sends a keyed message to the "mastery-beginner-topic"; messages with the
+     * same key go to the same partition, in order.
+     * 
+     * @param key     The record key, or null to spread messages over partitions.
+     * @param message The message content to send.
+     * @return a future that completes when the broker acknowledges the record,
+     *         or when the record is spooled while the broker is unreachable.
+     */
+    public CompletableFuture<SendResult<String, String>> sendMessage(String key, String message) {
+        if (logSampler.sample()) {
+            log.info("Sending message to topic '{}': {}", TOPIC, message);
+        }
 
         // The send() method is asynchronous. It returns a CompletableFuture.
-        // For simple use cases, we can just call it and let it run in the background.
-        kafkaTemplate.send(topicName, message);
+        // For simple use cases, callers can ignore it and let it run in the background.
+        Supplier<CompletableFuture<SendResult<String, String>>> send = () -> metrics.timeSend(TOPIC,
+                () -> kafkaTemplate.send(TOPIC, key, message));
+        return spool != null ? spool.send(TOPIC, key, message, send) : send.get();
+    }
+
+    /**
+     * Sends a message and reports where and how fast the broker acknowledged it.
+     * 
+     * @param message The message content to send.
+     * @param acks    The acknowledgement policy to send with.
+     * @return a future completed with partition, offset and latency once the
+     *         broker has acknowledged the record.
+     */
+    public CompletableFuture<SendReceipt> sendMessageAsync(String message, AcksPolicy acks) {
+        long start = System.nanoTime();
+        return metrics.timeSend(TOPIC, () -> acksTemplates.get(acks).send(TOPIC, message))
+                .thenApply(result -> SendReceipt.of(result.getRecordMetadata(), acks.acks(), start));
+    }
+
+    @PreDestroy
+    void close() {
+        acksTemplates.close();
     }
 }
@@ -0,0 +1,35 @@
+package com.shivam.kafka.claimcheck;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Where {@link ClaimCheck} keeps payloads too large to send through Kafka.
+ * <p>
+ * The application provides {@link FileSystemBlobStore}
+ * (kafka.claim-check.store=filesystem); to use another store, e.g. an object
+ * store shared by all instances, set kafka.claim-check.store to its name and
+ * register it as a bean. Producers and consumers must see the same store.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+public interface BlobStore {
+
+    /**
+     * Stores a payload; it must be readable with {@link #open(String)} once
+     * this returns.
+     *
+     * @param content The payload, read to the end.
+     * @return the id to reference the payload by.
+     */
+    String put(InputStream content) throws IOException;
+
+    /**
+     * @param id An id returned by {@link #put(InputStream)}.
+     * @return the payload, streamed.
+     * @throws java.io.FileNotFoundException if there is no such payload (e.g.
+     *                                       it expired).
+     */
+    InputStream open(String id) throws IOException;
+}
@@ -0,0 +1,258 @@
+package com.shivam.kafka.claimcheck;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Claim-check for large String payloads: above kafka.claim-check.threshold-bytes,
+ * the payload goes to the {@link BlobStore} and the record only carries its
+ * id, so large messages do not inflate producer batches, broker memory and
+ * consumer fetches.
+ * <p>
+ * A reference record has the id as its value and in the
+ * {@value #HEADER} header, with the payload size and CRC32C in
+ * {@value #SIZE_HEADER} and {@value #CRC_HEADER}. Only a record whose value
+ * equals the id is resolved, so a record republished with copied headers and
+ * an inline value is not mistaken for a reference. A payload republished
+ * with the headers of its reference (retry topics, DLT redrive, a resent
+ * record) reuses the stored copy; the CRC is checked again when it is read. {@link ClaimCheckSerializer} and {@link ClaimCheckDeserializer}
+ * apply it in the producers and consumers of the String topics, so callers
+ * and listeners see the full payload. As the reference is written by the
+ * serializer inside producer.send(), a transactional send commits or aborts
+ * it with the rest of the transaction.
+ * </p>
+ * <p>
+ * Resolved payloads are read as a stream and kept in an LRU cache of up to
+ * kafka.claim-check.cache-bytes, for redeliveries and retries. Exported as
+ * kafka.claimcheck.payloads{event=stored|resolved},
+ * kafka.claimcheck.cache{result=hit|miss} and kafka.claimcheck.cache.size.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Component
+public class ClaimCheck {
+
+    public static final String HEADER = "x-claim-check";
+    public static final String SIZE_HEADER = "x-claim-check-size";
+    public static final String CRC_HEADER = "x-claim-check-crc";
+
+    private static final int READ_BUFFER = 8192;
+
+    private final BlobStore store;
+    private final int thresholdBytes;
+    private final PayloadCache cache;
+    private final Counter stored;
+    private final Counter resolved;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public ClaimCheck(BlobStore store,
+            @Value("${kafka.claim-check.threshold-bytes:262144}") int thresholdBytes,
+            @Value("${kafka.claim-check.cache-bytes:67108864}") long cacheBytes,
+            MeterRegistry registry) {
+        this.store = store;
+        this.thresholdBytes = thresholdBytes;
+        this.cache = new PayloadCache(cacheBytes);
+        this.stored = payloadCounter(registry, "stored");
+        this.resolved = payloadCounter(registry, "resolved");
+        this.cacheHits = cacheCounter(registry, "hit");
+        this.cacheMisses = cacheCounter(registry, "miss");
+        Gauge.builder("kafka.claimcheck.cache.size", cache, PayloadCache::bytes)
+                .description("Resolved payloads held in the claim-check cache")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Stores the payload if it is above the threshold and turns the record into
+     * a reference. Claim-check headers that do not describe this payload are
+     * removed.
+     *
+     * @param payload The serialized value.
+     * @param headers The record headers.
+     * @return the value to send: the payload, or the reference.
+     */
+    byte[] check(byte[] payload, Headers headers) throws IOException {
+        Header existing = headers.lastHeader(HEADER);
+        if (payload == null) {
+            if (existing != null) {
+                removeHeaders(headers);
+            }
+            return null;
+        }
+        if (existing == null && (thresholdBytes <= 0 || payload.length <= thresholdBytes)) {
+            return payload;
+        }
+        if (existing != null && Arrays.equals(existing.value(), payload)) {
+            // Already a reference, e.g. redriven from the DLT without resolving it
+            return payload;
+        }
+        long crc = crc(payload);
+        if (existing != null) {
+            if (describes(headers, payload.length, crc)) {
+                return existing.value();
+            }
+            removeHeaders(headers);
+            if (thresholdBytes <= 0 || payload.length <= thresholdBytes) {
+                return payload;
+            }
+        }
+        byte[] id = store.put(new ByteArrayInputStream(payload)).getBytes(StandardCharsets.UTF_8);
+        headers.add(HEADER, id);
+        headers.add(SIZE_HEADER, Integer.toString(payload.length).getBytes(StandardCharsets.UTF_8));
+        headers.add(CRC_HEADER, Long.toString(crc).getBytes(StandardCharsets.UTF_8));
+        stored.increment();
+        return id;
+    }
+
+    /**
+     * @return the payload referenced by the record, or null if the record is
+     *         not a reference.
+     */
+    String resolve(byte[] value, Headers headers) throws IOException {
+        Header id = headers.lastHeader(HEADER);
+        if (id == null || value == null || !Arrays.equals(id.value(), value)) {
+            return null;
+        }
+        String key = new String(value, StandardCharsets.UTF_8);
+        String payload = cache.get(key);
+        if (payload != null) {
+            cacheHits.increment();
+            return payload;
+        }
+        cacheMisses.increment();
+        payload = read(key, sizeHeader(headers), numericHeader(headers, CRC_HEADER));
+        cache.put(key, payload);
+        resolved.increment();
+        return payload;
+    }
+
+    /**
+     * Decodes the payload while streaming it from the store, without holding
+     * its bytes and its characters at the same time.
+     */
+    private String read(String id, int size, long crc) throws IOException {
+        StringBuilder payload = new StringBuilder(size);
+        char[] buffer = new char[READ_BUFFER];
+        CRC32C checksum = new CRC32C();
+        try (InputStream in = new CheckedInputStream(store.open(id), checksum);
+                Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            for (int n; (n = reader.read(buffer)) >= 0;) {
+                payload.append(buffer, 0, n);
+            }
+        }
+        if (checksum.getValue() != crc) {
+            throw new IOException("Claim-check payload " + id + " is corrupt (CRC mismatch)");
+        }
+        return payload.toString();
+    }
+
+    private static boolean describes(Headers headers, int size, long crc) {
+        try {
+            return numericHeader(headers, SIZE_HEADER) == size && numericHeader(headers, CRC_HEADER) == crc;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int sizeHeader(Headers headers) throws IOException {
+        long size = numericHeader(headers, SIZE_HEADER);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Claim-check reference with an invalid size " + size);
+        }
+        return Math.toIntExact(size);
+    }
+
+    private static long numericHeader(Headers headers, String name) throws IOException {
+        Header header = headers.lastHeader(name);
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IOException("Claim-check reference without a valid " + name + " header", e);
+        }
+    }
+
+    private static void removeHeaders(Headers headers) {
+        headers.remove(HEADER);
+        headers.remove(SIZE_HEADER);
+        headers.remove(CRC_HEADER);
+    }
+
+    private static long crc(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private static Counter payloadCounter(MeterRegistry registry, String event) {
+        return Counter.builder("kafka.claimcheck.payloads")
+                .description("Payloads stored in and resolved from the blob store")
+                .tag("event", event)
+                .register(registry);
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, String result) {
+        return Counter.builder("kafka.claimcheck.cache")
+                .description("Claim-check cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * LRU cache bounded by the size of its payloads (2 bytes per char).
+     * Payloads larger than a quarter of the cache are not cached, so one of
+     * them cannot flush everything else.
+     */
+    private static final class PayloadCache {
+
+        private final long maxBytes;
+        private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        PayloadCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized String get(String id) {
+            return entries.get(id);
+        }
+
+        synchronized void put(String id, String payload) {
+            long size = 2L * payload.length();
+            if (size > maxBytes / 4) {
+                return;
+            }
+            String previous = entries.put(id, payload);
+            bytes += size - (previous != null ? 2L * previous.length() : 0);
+            Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= 2L * eldest.next().getValue().length();
+                eldest.remove();
+            }
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
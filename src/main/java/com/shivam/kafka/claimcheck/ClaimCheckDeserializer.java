@@ -0,0 +1,41 @@
+package com.shivam.kafka.claimcheck;
+
+import java.io.IOException;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+/**
+ * StringDeserializer that replaces claim-check references by their payload
+ * (see {@link ClaimCheck}). A payload that cannot be read fails the record
+ * with a SerializationException; wrap it in an ErrorHandlingDeserializer so
+ * the listener's error handler gets the record instead of the poll failing.
+ *
+ * @author Shivam Srivastav
+ */
+public class ClaimCheckDeserializer implements Deserializer<String> {
+
+    private final StringDeserializer delegate = new StringDeserializer();
+    private final ClaimCheck claimCheck;
+
+    public ClaimCheckDeserializer(ClaimCheck claimCheck) {
+        this.claimCheck = claimCheck;
+    }
+
+    @Override
+    public String deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public String deserialize(String topic, Headers headers, byte[] data) {
+        try {
+            String payload = claimCheck.resolve(data, headers);
+            return payload != null ? payload : delegate.deserialize(topic, headers, data);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Unable to resolve claim-check payload from topic " + topic, e);
+        }
+    }
+}
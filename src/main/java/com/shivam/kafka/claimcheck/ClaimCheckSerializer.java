@@ -0,0 +1,41 @@
+package com.shivam.kafka.claimcheck;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * StringSerializer that sends payloads above the claim-check threshold as
+ * references (see {@link ClaimCheck}).
+ *
+ * @author Shivam Srivastav
+ */
+public class ClaimCheckSerializer implements Serializer<String> {
+
+    private final StringSerializer delegate = new StringSerializer();
+    private final ClaimCheck claimCheck;
+
+    public ClaimCheckSerializer(ClaimCheck claimCheck) {
+        this.claimCheck = claimCheck;
+    }
+
+    @Override
+    public byte[] serialize(String topic, String data) {
+        // No headers to carry a reference
+        return delegate.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, String data) {
+        byte[] payload = delegate.serialize(topic, headers, data);
+        try {
+            return claimCheck.check(payload, headers);
+        } catch (IOException | UncheckedIOException e) {
+            throw new SerializationException("Unable to store claim-check payload for topic " + topic, e);
+        }
+    }
+}
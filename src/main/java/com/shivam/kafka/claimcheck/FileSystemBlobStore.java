@@ -0,0 +1,106 @@
+package com.shivam.kafka.claimcheck;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link BlobStore} on the local filesystem (or a volume mounted by every
+ * instance), one file per payload under kafka.claim-check.dir.
+ * <p>
+ * A payload is written to a temporary file and atomically moved into place,
+ * so a reader never sees a partial one. Payloads older than
+ * kafka.claim-check.retention-ms are deleted; keep it at least as long as the
+ * retention of the topics. This also removes the payloads of references that
+ * were never committed (aborted transactions) and of retried records, which
+ * are stored again on every attempt.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.claim-check.store", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+    private static final String SUFFIX = ".blob";
+
+    private final Path directory;
+    private final Duration retention;
+
+    public FileSystemBlobStore(@Value("${kafka.claim-check.dir:data/blobs}") String directory,
+            @Value("${kafka.claim-check.retention-ms:604800000}") long retentionMs) {
+        this.directory = Paths.get(directory);
+        this.retention = Duration.ofMillis(retentionMs);
+    }
+
+    @Override
+    public String put(InputStream content) throws IOException {
+        Files.createDirectories(directory);
+        String id = UUID.randomUUID().toString();
+        Path temp = directory.resolve(id + ".tmp");
+        try {
+            Files.copy(content, temp);
+            Files.move(temp, path(id), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return id;
+    }
+
+    @Override
+    public InputStream open(String id) throws IOException {
+        try {
+            return Files.newInputStream(path(id));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("No claim-check payload " + id);
+        }
+    }
+
+    private Path path(String id) {
+        // Ids come from record headers: only accept the UUIDs put() creates
+        return directory.resolve(UUID.fromString(id) + SUFFIX);
+    }
+
+    /**
+     * Deletes payloads older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${kafka.claim-check.sweep-interval-ms:3600000}",
+            initialDelayString = "${kafka.claim-check.sweep-interval-ms:3600000}")
+    void sweep() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Claim-check sweep of {} failed", directory, e);
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} claim-check payloads older than {}", deleted, retention);
+        }
+    }
+}
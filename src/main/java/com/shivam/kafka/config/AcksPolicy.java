@@ -0,0 +1,49 @@
+package com.shivam.kafka.config;
+
+import java.util.Locale;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+/**
+ * Producer acknowledgement policies that can be chosen per endpoint.
+ * <p>
+ * acks=0: fire and forget, no broker confirmation (offset is unknown).
+ * acks=1: the partition leader has written the record.
+ * acks=all: all in-sync replicas have the record (required for idempotence
+ * and transactions).
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public enum AcksPolicy {
+
+    NONE("0"),
+    LEADER("1"),
+    ALL("all");
+
+    private final String acks;
+
+    AcksPolicy(String acks) {
+        this.acks = acks;
+    }
+
+    /**
+     * @return the value for {@link ProducerConfig#ACKS_CONFIG}.
+     */
+    public String acks() {
+        return acks;
+    }
+
+    /**
+     * Parses either the raw Kafka value ("0", "1", "all", "-1") or the enum name.
+     */
+    public static AcksPolicy from(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "0", "none" -> NONE;
+            case "1", "leader" -> LEADER;
+            case "all", "-1" -> ALL;
+            default -> throw new IllegalArgumentException("Unknown acks policy: " + value);
+        };
+    }
+}
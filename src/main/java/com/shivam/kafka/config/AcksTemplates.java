@@ -0,0 +1,75 @@
+package com.shivam.kafka.config;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * One {@link KafkaTemplate} per {@link AcksPolicy}, derived from a base
+ * template.
+ * <p>
+ * acks is a producer-level setting, so each policy needs its own producer.
+ * The derived templates share the base configuration and only override acks.
+ * They are created on first use, so a policy that is never requested costs
+ * nothing.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public class AcksTemplates<V> {
+
+    private final KafkaTemplate<String, V> base;
+    private final AtomicReferenceArray<KafkaTemplate<String, V>> templates = new AtomicReferenceArray<>(
+            AcksPolicy.values().length);
+
+    public AcksTemplates(KafkaTemplate<String, V> base) {
+        this.base = base;
+    }
+
+    public KafkaTemplate<String, V> get(AcksPolicy policy) {
+        KafkaTemplate<String, V> template = templates.get(policy.ordinal());
+        if (template == null) {
+            KafkaTemplate<String, V> created = create(policy);
+            if (!templates.compareAndSet(policy.ordinal(), null, created)) {
+                // Another thread won the race; drop our copy
+                if (created != base) {
+                    created.getProducerFactory().reset();
+                }
+            }
+            template = templates.get(policy.ordinal());
+        }
+        return template;
+    }
+
+    private KafkaTemplate<String, V> create(AcksPolicy policy) {
+        if (policy == baseAcks()) {
+            return base;
+        }
+        return new KafkaTemplate<>(base.getProducerFactory(), Map.of(ProducerConfig.ACKS_CONFIG, policy.acks()));
+    }
+
+    private AcksPolicy baseAcks() {
+        try {
+            Object acks = base.getProducerFactory().getConfigurationProperties().get(ProducerConfig.ACKS_CONFIG);
+            return acks == null ? AcksPolicy.ALL : AcksPolicy.from(String.valueOf(acks));
+        } catch (UnsupportedOperationException e) {
+            // Factories that do not expose their configuration (e.g. mocks) use the client default
+            return AcksPolicy.ALL;
+        }
+    }
+
+    /**
+     * Closes the producers of the derived templates (the base template is
+     * managed by Spring).
+     */
+    public void close() {
+        for (int i = 0; i < templates.length(); i++) {
+            KafkaTemplate<String, V> template = templates.get(i);
+            if (template != null && template != base) {
+                template.getProducerFactory().reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.shivam.kafka.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tunes linger.ms and batch.size of the producer factories that use the
+ * ADAPTIVE {@link ProducerTuningProfile}.
+ * <p>
+ * Every kafka.producer.adaptive.interval-ms the producer's own metrics are
+ * read (batch-size-avg, record-queue-time-max, request-latency-max,
+ * compression-rate-avg, record-send-rate). Send-to-ack p99 is estimated
+ * conservatively as record-queue-time-max + request-latency-max over the
+ * client's metric window.
+ * </p>
+ * <ul>
+ * <li>Above kafka.producer.adaptive.target-p99-ms: linger.ms is halved, and
+ * once it is at its minimum, batch.size is halved.</li>
+ * <li>Below 70% of the target: batches that fill up (batch-size-avg above 80%
+ * of batch.size, counted after compression) get a doubled batch.size,
+ * otherwise linger.ms is raised by half so more records share a batch.</li>
+ * </ul>
+ * <p>
+ * Both stay within the configured bounds, and idle producers are left alone.
+ * A producer's configuration is fixed once created, so a change is applied by
+ * updating the factory and resetting it: the current producer is closed
+ * after flushing and the next send creates one with the new settings. Sends
+ * that race with the reset can fail, so changes are rare by design (at most
+ * one per interval, default 30s, the length of the client's metric window).
+ * Producers derived per acks policy (AcksTemplates) keep the initial settings.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Component
+public class AdaptiveProducerTuner {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveProducerTuner.class);
+
+    private static final double HEADROOM = 0.7;
+    private static final double FULL_BATCH = 0.8;
+
+    private final MeterRegistry meterRegistry;
+    private final double targetP99Ms;
+    private final int minLingerMs;
+    private final int maxLingerMs;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final Map<String, Tuned<?, ?>> factories = new ConcurrentHashMap<>();
+
+    public AdaptiveProducerTuner(MeterRegistry meterRegistry,
+            @Value("${kafka.producer.adaptive.target-p99-ms:50}") double targetP99Ms,
+            @Value("${kafka.producer.adaptive.min-linger-ms:0}") int minLingerMs,
+            @Value("${kafka.producer.adaptive.max-linger-ms:100}") int maxLingerMs,
+            @Value("${kafka.producer.adaptive.min-batch-size:16384}") int minBatchSize,
+            @Value("${kafka.producer.adaptive.max-batch-size:1048576}") int maxBatchSize) {
+        this.meterRegistry = meterRegistry;
+        this.targetP99Ms = targetP99Ms;
+        this.minLingerMs = minLingerMs;
+        this.maxLingerMs = maxLingerMs;
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Applies a profile to a factory, and registers it for tuning if the profile
+     * is ADAPTIVE.
+     *
+     * @param name    Name used in logs and metrics (the factory bean name).
+     * @param profile The profile to apply.
+     * @param factory The factory to configure.
+     * @return the factory.
+     */
+    public <K, V> DefaultKafkaProducerFactory<K, V> apply(String name, ProducerTuningProfile profile,
+            DefaultKafkaProducerFactory<K, V> factory) {
+        factory.updateConfigs(profile.configs());
+        if (profile == ProducerTuningProfile.ADAPTIVE) {
+            Tuned<K, V> tuned = new Tuned<>(factory, intConfig(factory, ProducerConfig.LINGER_MS_CONFIG),
+                    intConfig(factory, ProducerConfig.BATCH_SIZE_CONFIG));
+            factory.addListener(tuned);
+            factories.put(name, tuned);
+            Gauge.builder("kafka.producer.tuning.linger.ms", tuned, t -> t.lingerMs)
+                    .description("linger.ms chosen by the adaptive producer tuner")
+                    .tag("factory", name)
+                    .register(meterRegistry);
+            Gauge.builder("kafka.producer.tuning.batch.size", tuned, t -> t.batchSize)
+                    .description("batch.size chosen by the adaptive producer tuner")
+                    .tag("factory", name)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        return factory;
+    }
+
+    /**
+     * Evaluates every adaptive factory and applies at most one change to each.
+     */
+    @Scheduled(fixedDelayString = "${kafka.producer.adaptive.interval-ms:30000}",
+            initialDelayString = "${kafka.producer.adaptive.interval-ms:30000}")
+    public void tune() {
+        factories.forEach(this::tune);
+    }
+
+    private void tune(String name, Tuned<?, ?> tuned) {
+        Sample sample = tuned.sample();
+        if (sample == null || !(sample.sendRate > 0)) {
+            return;
+        }
+        int linger = tuned.lingerMs;
+        int batch = tuned.batchSize;
+        double p99 = sample.queueTimeMaxMs + sample.requestLatencyMaxMs;
+        if (p99 > targetP99Ms) {
+            if (linger > minLingerMs) {
+                linger = Math.max(minLingerMs, linger / 2);
+            } else {
+                batch = Math.max(minBatchSize, batch / 2);
+            }
+        } else if (p99 < targetP99Ms * HEADROOM) {
+            if (sample.batchSizeAvg >= batch * FULL_BATCH) {
+                batch = (int) Math.min(maxBatchSize, batch * 2L);
+            } else {
+                linger = Math.min(maxLingerMs, Math.max(linger + 1, linger + linger / 2));
+            }
+        }
+        if (linger == tuned.lingerMs && batch == tuned.batchSize) {
+            return;
+        }
+        log.info("Producer {}: p99 ~{} ms (target {} ms), batch avg {} bytes, compression {}, {} records/s"
+                + " -> linger.ms {} -> {}, batch.size {} -> {}", name, Math.round(p99), targetP99Ms,
+                Math.round(sample.batchSizeAvg), String.format("%.2f", sample.compressionRate),
+                Math.round(sample.sendRate), tuned.lingerMs, linger, tuned.batchSize, batch);
+        tuned.update(linger, batch);
+    }
+
+    private static int intConfig(ProducerFactory<?, ?> factory, String key) {
+        Object value = factory.getConfigurationProperties().get(key);
+        if (value == null) {
+            value = ProducerConfig.configDef().defaultValues().get(key);
+        }
+        return value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString());
+    }
+
+    /**
+     * One tuning window of a factory's producers, averaged over the producers
+     * (transactional factories can have several).
+     */
+    private record Sample(double batchSizeAvg, double queueTimeMaxMs, double requestLatencyMaxMs,
+            double compressionRate, double sendRate) {
+    }
+
+    /**
+     * Tuning state of one factory; tracks its live producers to read their
+     * metrics.
+     */
+    private static final class Tuned<K, V> implements ProducerFactory.Listener<K, V> {
+
+        private final DefaultKafkaProducerFactory<K, V> factory;
+        private final List<Producer<K, V>> producers = new CopyOnWriteArrayList<>();
+        private volatile int lingerMs;
+        private volatile int batchSize;
+
+        Tuned(DefaultKafkaProducerFactory<K, V> factory, int lingerMs, int batchSize) {
+            this.factory = factory;
+            this.lingerMs = lingerMs;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void producerAdded(String id, Producer<K, V> producer) {
+            producers.add(producer);
+        }
+
+        @Override
+        public void producerRemoved(String id, Producer<K, V> producer) {
+            producers.remove(producer);
+        }
+
+        Sample sample() {
+            double batchSizeAvg = 0;
+            double queueTimeMax = 0;
+            double requestLatencyMax = 0;
+            double compressionRate = 0;
+            double sendRate = 0;
+            int count = 0;
+            for (Producer<K, V> producer : producers) {
+                Map<MetricName, ? extends Metric> metrics = producer.metrics();
+                double batch = value(metrics, "batch-size-avg");
+                if (Double.isNaN(batch)) {
+                    continue;
+                }
+                batchSizeAvg += batch;
+                queueTimeMax = Math.max(queueTimeMax, value(metrics, "record-queue-time-max"));
+                requestLatencyMax = Math.max(requestLatencyMax, value(metrics, "request-latency-max"));
+                compressionRate += value(metrics, "compression-rate-avg");
+                sendRate += value(metrics, "record-send-rate");
+                count++;
+            }
+            if (count == 0) {
+                return null;
+            }
+            return new Sample(batchSizeAvg / count, queueTimeMax, requestLatencyMax, compressionRate / count,
+                    sendRate);
+        }
+
+        void update(int lingerMs, int batchSize) {
+            this.lingerMs = lingerMs;
+            this.batchSize = batchSize;
+            factory.updateConfigs(Map.of(
+                    ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                    ProducerConfig.BATCH_SIZE_CONFIG, batchSize));
+            factory.reset();
+        }
+
+        private static double value(Map<MetricName, ? extends Metric> metrics, String name) {
+            for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+                MetricName metricName = entry.getKey();
+                if (name.equals(metricName.name()) && "producer-metrics".equals(metricName.group())
+                        && entry.getValue().metricValue() instanceof Number number) {
+                    return number.doubleValue();
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
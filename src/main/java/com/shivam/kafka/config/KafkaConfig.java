@@ -15,6 +15,7 @@ import org.springframework.kafka.config.TopicBuilder;
  * @author Shivam Srivastav
  */
 @Configuration
+@org.springframework.context.annotation.ImportRuntimeHints(KafkaRuntimeHints.class)
 public class KafkaConfig {
 
         /**
@@ -56,6 +57,345 @@ public class KafkaConfig {
                                 .build();
         }
 
+        @org.springframework.beans.factory.annotation.Value("${kafka.dedup.ttl-ms:3600000}")
+        private long dedupTtlMs;
+
+        /**
+         * Creates "mastery-json-dedup", the processed User ids of JsonConsumer (see
+         * UserDeduplicator).
+         * <p>
+         * compact keeps the latest entry per id and delete drops entries older than
+         * the dedup window, so the topic never outgrows the window.
+         * </p>
+         */
+        @Bean
+        public NewTopic dedupTopic() {
+                return TopicBuilder.name(com.shivam.kafka.dedup.UserDeduplicator.TOPIC)
+                                .partitions(3)
+                                .replicas(1)
+                                .config(org.apache.kafka.common.config.TopicConfig.CLEANUP_POLICY_CONFIG,
+                                                "compact,delete")
+                                .config(org.apache.kafka.common.config.TopicConfig.RETENTION_MS_CONFIG,
+                                                Long.toString(dedupTtlMs))
+                                .build();
+        }
+
+        // ========================================================================
+        // Metrics (exposed on /actuator/prometheus)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Autowired
+        private io.micrometer.core.instrument.MeterRegistry meterRegistry;
+
+        @org.springframework.beans.factory.annotation.Autowired
+        private com.shivam.kafka.metrics.KafkaMetrics kafkaMetrics;
+
+        @org.springframework.beans.factory.annotation.Autowired
+        private com.shivam.kafka.metrics.EndToEndLatency endToEndLatency;
+
+        /**
+         * Stamps every produced record with its send time and records the
+         * produce-to-consume latency in the listener containers (see
+         * EndToEndLatency). Enabled by the loadgen profile.
+         */
+        @org.springframework.beans.factory.annotation.Value("${kafka.latency.end-to-end.enabled:false}")
+        private boolean endToEndLatencyEnabled;
+
+        /**
+         * Binds the Kafka client metrics of every producer created by the factory
+         * (record-error-rate, batch-size-avg, request-latency-avg, ...) to
+         * Micrometer as kafka.producer.*, and counts its live producers as
+         * kafka.producer.instances{factory=name}.
+         */
+        private <K, V> org.springframework.kafka.core.DefaultKafkaProducerFactory<K, V> metered(String name,
+                        org.springframework.kafka.core.DefaultKafkaProducerFactory<K, V> factory) {
+                factory.addListener(new org.springframework.kafka.core.MicrometerProducerListener<>(meterRegistry));
+                kafkaMetrics.countProducers(name, factory);
+                if (endToEndLatencyEnabled) {
+                        factory.updateConfigs(java.util.Map.of(
+                                        org.apache.kafka.clients.producer.ProducerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                                        com.shivam.kafka.metrics.SendTimestampInterceptor.class.getName()));
+                }
+                return factory;
+        }
+
+        @org.springframework.beans.factory.annotation.Autowired
+        private com.shivam.kafka.metrics.StartupReport startupReport;
+
+        /**
+         * Binds the Kafka client metrics of every consumer created by the factory
+         * to Micrometer as kafka.consumer.*, including per-partition lag
+         * (kafka.consumer.fetch.manager.records.lag).
+         */
+        private <K, V> org.springframework.kafka.core.DefaultKafkaConsumerFactory<K, V> metered(
+                        org.springframework.kafka.core.DefaultKafkaConsumerFactory<K, V> factory) {
+                factory.addListener(new org.springframework.kafka.core.MicrometerConsumerListener<>(meterRegistry));
+                return factory;
+        }
+
+        /**
+         * Meters a listener container's consumer factory and reports its first
+         * records to the StartupReport. Not for the consumers that read topics
+         * on their own (DLT inspection, dedup restore, user view): their first
+         * record says nothing about when the listeners started consuming.
+         */
+        private <K, V> org.springframework.kafka.core.DefaultKafkaConsumerFactory<K, V> reported(
+                        org.springframework.kafka.core.DefaultKafkaConsumerFactory<K, V> factory) {
+                factory.updateConfigs(firstRecordConfigs());
+                return metered(factory);
+        }
+
+        private java.util.Map<String, Object> firstRecordConfigs() {
+                return java.util.Map.of(
+                                org.apache.kafka.clients.consumer.ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                                com.shivam.kafka.metrics.FirstRecordInterceptor.class.getName(),
+                                com.shivam.kafka.metrics.FirstRecordInterceptor.REPORT_CONFIG,
+                                startupReport);
+        }
+
+        /**
+         * Reports the first records of Spring Boot's default consumer factory
+         * (used by BasicConsumer) too.
+         */
+        @Bean
+        public org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer startupReportConsumerFactoryCustomizer() {
+                return factory -> factory.updateConfigs(firstRecordConfigs());
+        }
+
+        private <K, V> org.springframework.kafka.listener.BatchInterceptor<K, V> batchSizeInterceptor() {
+                return (records, consumer) -> {
+                        kafkaMetrics.recordBatch(records);
+                        if (endToEndLatencyEnabled) {
+                                records.forEach(endToEndLatency::record);
+                        }
+                        return records;
+                };
+        }
+
+        private <K, V> org.springframework.kafka.listener.RecordInterceptor<K, V> endToEndLatencyInterceptor() {
+                return (record, consumer) -> {
+                        endToEndLatency.record(record);
+                        return record;
+                };
+        }
+
+        /**
+         * Records produce-to-consume latency in Spring Boot's default
+         * kafkaListenerContainerFactory (used by BasicConsumer), which picks up a
+         * RecordInterceptor bean automatically.
+         */
+        @Bean
+        @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(name = "kafka.latency.end-to-end.enabled", havingValue = "true")
+        public org.springframework.kafka.listener.RecordInterceptor<Object, Object> defaultEndToEndLatencyInterceptor() {
+                return endToEndLatencyInterceptor();
+        }
+
+        // ========================================================================
+        // Producer Tuning (linger, batch size, compression per producer)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Autowired
+        private AdaptiveProducerTuner producerTuner;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.producer.basic.profile:balanced}")
+        private String basicProducerProfile;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.producer.user.profile:balanced}")
+        private String userProducerProfile;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.producer.advanced.profile:balanced}")
+        private String advancedProducerProfile;
+
+        /**
+         * Applies the configured ProducerTuningProfile (default, latency,
+         * balanced, throughput or adaptive) to a producer factory.
+         */
+        private <K, V> org.springframework.kafka.core.DefaultKafkaProducerFactory<K, V> tuned(String name,
+                        String profile, org.springframework.kafka.core.DefaultKafkaProducerFactory<K, V> factory) {
+                return producerTuner.apply(name, ProducerTuningProfile.from(profile), factory);
+        }
+
+        // ========================================================================
+        // Hot-Key Partitioning (User traffic keyed by id, hot ids spread)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Autowired
+        private com.shivam.kafka.partitioning.HotKeyTracker hotKeyTracker;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.partitioner.hot-key.enabled:false}")
+        private boolean hotKeyPartitionerEnabled;
+
+        /**
+         * Partitions the factory's records with HotKeyAwarePartitioner: keys hash
+         * to a partition as usual, and keys the HotKeyTracker finds hot are
+         * spread over a few partitions. Only for producers of User traffic: a
+         * custom partitioner replaces the client's built-in partitioning for
+         * every topic the producer sends to.
+         */
+        private <K, V> org.springframework.kafka.core.DefaultKafkaProducerFactory<K, V> partitioned(
+                        org.springframework.kafka.core.DefaultKafkaProducerFactory<K, V> factory) {
+                factory.updateConfigs(partitionerConfigs());
+                return factory;
+        }
+
+        private java.util.Map<String, Object> partitionerConfigs() {
+                if (!hotKeyPartitionerEnabled) {
+                        return java.util.Map.of();
+                }
+                return java.util.Map.of(
+                                org.apache.kafka.clients.producer.ProducerConfig.PARTITIONER_CLASS_CONFIG,
+                                com.shivam.kafka.partitioning.HotKeyAwarePartitioner.class.getName(),
+                                com.shivam.kafka.partitioning.HotKeyAwarePartitioner.TRACKER_CONFIG,
+                                hotKeyTracker);
+        }
+
+        // ========================================================================
+        // Shared Producer (one KafkaProducer behind the non-transactional templates)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.producer.shared.enabled:true}")
+        private boolean sharedProducerEnabled;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.producer.shared.profile:balanced}")
+        private String sharedProducerProfile;
+
+        /**
+         * One producer for basicKafkaTemplate and userKafkaTemplate, so they share
+         * a buffer, an I/O thread, broker connections and metadata instead of
+         * running a KafkaProducer each.
+         * <p>
+         * Values are serialized by their type (DelegatingByTypeSerializer): String
+         * with StringSerializer, User with the kafka.serde.user.producer format,
+         * byte[] as is. Register a serializer here to let another template share
+         * the producer. Transactional sends cannot share it (a transactional
+         * producer only sends inside transactions), so advancedProducerFactory
+         * stays separate and pools its producers in its transactional cache.
+         * While hot-key partitioning is on, userKafkaTemplate uses
+         * userProducerFactory instead, so the partitioner only sees User records.
+         * </p>
+         */
+        @Bean
+        public org.springframework.kafka.core.ProducerFactory<String, Object> sharedProducerFactory() {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.putAll(spoolHandoffConfigs());
+                return tuned("sharedProducerFactory", sharedProducerProfile, metered("sharedProducerFactory",
+                                new org.springframework.kafka.core.DefaultKafkaProducerFactory<String, Object>(configProps,
+                                                new org.apache.kafka.common.serialization.StringSerializer(),
+                                                valueSerializerByType())));
+        }
+
+        private org.springframework.kafka.support.serializer.DelegatingByTypeSerializer valueSerializerByType() {
+                return valueSerializerByType(claimCheckSerializer());
+        }
+
+        private org.springframework.kafka.support.serializer.DelegatingByTypeSerializer valueSerializerByType(
+                        org.apache.kafka.common.serialization.Serializer<String> stringSerializer) {
+                java.util.Map<Class<?>, org.apache.kafka.common.serialization.Serializer<?>> serializers = new java.util.LinkedHashMap<>();
+                serializers.put(String.class, stringSerializer);
+                serializers.put(com.shivam.kafka.model.User.class, userValueSerializer());
+                serializers.put(byte[].class, new org.apache.kafka.common.serialization.ByteArraySerializer());
+                return new org.springframework.kafka.support.serializer.DelegatingByTypeSerializer(serializers);
+        }
+
+        /**
+         * Views the shared producer factory with the value type of a template; the
+         * DelegatingByTypeSerializer must have a serializer for that type.
+         */
+        @SuppressWarnings("unchecked")
+        private <V> org.springframework.kafka.core.ProducerFactory<String, V> sharedProducerFactory(Class<V> valueType) {
+                return (org.springframework.kafka.core.ProducerFactory<String, V>) (org.springframework.kafka.core.ProducerFactory<String, ?>) sharedProducerFactory();
+        }
+
+        // ========================================================================
+        // Producer Spool (sends kept on local disk while the broker is unreachable)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.spool.enabled:true}")
+        private boolean spoolEnabled;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.spool.handoff-timeout-ms:500}")
+        private long spoolHandoffTimeoutMs;
+
+        /**
+         * With the spool enabled, a send that cannot get metadata or buffer space
+         * within kafka.spool.handoff-timeout-ms fails (instead of blocking for the
+         * default 60 s) and ProducerSpool keeps the record.
+         */
+        private java.util.Map<String, Object> spoolHandoffConfigs() {
+                if (!spoolEnabled) {
+                        return java.util.Map.of();
+                }
+                return java.util.Map.of(org.apache.kafka.clients.producer.ProducerConfig.MAX_BLOCK_MS_CONFIG,
+                                spoolHandoffTimeoutMs);
+        }
+
+        /**
+         * Serializes values for the spool as the templates they were meant for
+         * would have, except for the claim-check: the spool does not keep
+         * headers, so large Strings are spooled and replayed inline.
+         */
+        @Bean
+        public org.apache.kafka.common.serialization.Serializer<Object> spoolValueSerializer() {
+                return valueSerializerByType(new org.apache.kafka.common.serialization.StringSerializer());
+        }
+
+        /**
+         * Replays spooled records, already serialized, through the shared producer
+         * (or a byte[] producer of its own when the producer is not shared).
+         */
+        @Bean
+        public org.springframework.kafka.core.KafkaTemplate<String, byte[]> spoolKafkaTemplate() {
+                if (sharedProducerEnabled) {
+                        return new org.springframework.kafka.core.KafkaTemplate<>(sharedProducerFactory(byte[].class));
+                }
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.putAll(spoolHandoffConfigs());
+                return new org.springframework.kafka.core.KafkaTemplate<>(metered("spoolProducerFactory",
+                                new org.springframework.kafka.core.DefaultKafkaProducerFactory<>(configProps,
+                                                new org.apache.kafka.common.serialization.StringSerializer(),
+                                                new org.apache.kafka.common.serialization.ByteArraySerializer())));
+        }
+
+        // ========================================================================
+        // Claim-Check (large String payloads kept in a BlobStore)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Autowired
+        private com.shivam.kafka.claimcheck.ClaimCheck claimCheck;
+
+        /**
+         * Value serializer of the String producers: payloads above
+         * kafka.claim-check.threshold-bytes are sent as references.
+         */
+        private org.apache.kafka.common.serialization.Serializer<String> claimCheckSerializer() {
+                return new com.shivam.kafka.claimcheck.ClaimCheckSerializer(claimCheck);
+        }
+
+        /**
+         * Value deserializer of the String listeners: references are replaced by
+         * their payload. The DLT consumer keeps plain Strings, so inspection shows
+         * references and a redrive sends them on unchanged.
+         */
+        private org.apache.kafka.common.serialization.Deserializer<String> claimCheckDeserializer() {
+                return new com.shivam.kafka.claimcheck.ClaimCheckDeserializer(claimCheck);
+        }
+
+        /**
+         * Resolves references in Spring Boot's default consumer factory (used by
+         * BasicConsumer) too.
+         */
+        @Bean
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer claimCheckConsumerFactoryCustomizer() {
+                return factory -> ((org.springframework.kafka.core.DefaultKafkaConsumerFactory) factory).setValueDeserializer(
+                                new org.springframework.kafka.support.serializer.ErrorHandlingDeserializer<>(
+                                                claimCheckDeserializer()));
+        }
+
         // ========================================================================
         // Basic Configuration
         // ========================================================================
@@ -65,16 +405,18 @@ public class KafkaConfig {
                 java.util.Map<String, Object> configProps = new java.util.HashMap<>();
                 configProps.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
                                 bootstrapServers);
-                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
-                                org.apache.kafka.common.serialization.StringSerializer.class);
-                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                                org.apache.kafka.common.serialization.StringSerializer.class);
-                return new org.springframework.kafka.core.DefaultKafkaProducerFactory<>(configProps);
+                configProps.putAll(spoolHandoffConfigs());
+                return tuned("basicProducerFactory", basicProducerProfile, metered("basicProducerFactory",
+                                new org.springframework.kafka.core.DefaultKafkaProducerFactory<>(configProps,
+                                                new org.apache.kafka.common.serialization.StringSerializer(),
+                                                claimCheckSerializer())));
         }
 
         @Bean
         public org.springframework.kafka.core.KafkaTemplate<String, String> basicKafkaTemplate() {
-                return new org.springframework.kafka.core.KafkaTemplate<>(basicProducerFactory());
+                return new org.springframework.kafka.core.KafkaTemplate<>(sharedProducerEnabled
+                                ? sharedProducerFactory(String.class)
+                                : basicProducerFactory());
         }
 
         // ========================================================================
@@ -84,21 +426,69 @@ public class KafkaConfig {
         @org.springframework.beans.factory.annotation.Value("${spring.kafka.bootstrap-servers}")
         private String bootstrapServers;
 
+        /**
+         * Wire format of User values: "json" (JsonSerializer) or "binary"
+         * (UserBinarySerializer). The binary deserializer also reads JSON
+         * records, so switch the consumer side first when migrating. Consumers
+         * can also use "lazy": binary records become LazyUser views whose
+         * fields are decoded on first access.
+         */
+        @org.springframework.beans.factory.annotation.Value("${kafka.serde.user.producer:json}")
+        private String userProducerFormat;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.serde.user.consumer:json}")
+        private String userConsumerFormat;
+
+        private org.apache.kafka.common.serialization.Deserializer<com.shivam.kafka.model.User> userValueDeserializer() {
+                if ("binary".equalsIgnoreCase(userConsumerFormat)) {
+                        return new com.shivam.kafka.serialization.UserBinaryDeserializer();
+                }
+                if ("lazy".equalsIgnoreCase(userConsumerFormat)) {
+                        return new com.shivam.kafka.serialization.LazyUserDeserializer();
+                }
+                return new org.springframework.kafka.support.serializer.JsonDeserializer<>(
+                                com.shivam.kafka.model.User.class,
+                                false);
+        }
+
+        private org.apache.kafka.common.serialization.Serializer<com.shivam.kafka.model.User> userValueSerializer() {
+                if ("binary".equalsIgnoreCase(userProducerFormat)) {
+                        return new com.shivam.kafka.serialization.UserBinarySerializer();
+                }
+                return new org.springframework.kafka.support.serializer.JsonSerializer<>();
+        }
+
+        /**
+         * Lets @KafkaListener methods take a LazyUser parameter (see
+         * LazyUserArgumentResolver).
+         */
+        @Bean
+        public org.springframework.kafka.annotation.KafkaListenerConfigurer lazyUserListenerConfigurer() {
+                return registrar -> registrar.setCustomMethodArgumentResolvers(
+                                new com.shivam.kafka.serialization.LazyUserArgumentResolver());
+        }
+
         @Bean
         public org.springframework.kafka.core.ProducerFactory<String, com.shivam.kafka.model.User> userProducerFactory() {
                 java.util.Map<String, Object> configProps = new java.util.HashMap<>();
                 configProps.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
                                 bootstrapServers);
+                configProps.putAll(spoolHandoffConfigs());
                 configProps.put(org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
                                 org.apache.kafka.common.serialization.StringSerializer.class);
                 configProps.put(org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                                org.springframework.kafka.support.serializer.JsonSerializer.class);
-                return new org.springframework.kafka.core.DefaultKafkaProducerFactory<>(configProps);
+                                "binary".equalsIgnoreCase(userProducerFormat)
+                                                ? com.shivam.kafka.serialization.UserBinarySerializer.class
+                                                : org.springframework.kafka.support.serializer.JsonSerializer.class);
+                return tuned("userProducerFactory", userProducerProfile, partitioned(metered("userProducerFactory",
+                                new org.springframework.kafka.core.DefaultKafkaProducerFactory<>(configProps))));
         }
 
         @Bean
         public org.springframework.kafka.core.KafkaTemplate<String, com.shivam.kafka.model.User> userKafkaTemplate() {
-                return new org.springframework.kafka.core.KafkaTemplate<>(userProducerFactory());
+                return new org.springframework.kafka.core.KafkaTemplate<>(sharedProducerEnabled && !hotKeyPartitionerEnabled
+                                ? sharedProducerFactory(com.shivam.kafka.model.User.class)
+                                : userProducerFactory());
         }
 
         @Bean
@@ -113,17 +503,22 @@ public class KafkaConfig {
                                 org.springframework.kafka.support.serializer.JsonDeserializer.class);
                 configProps.put(org.springframework.kafka.support.serializer.JsonDeserializer.TRUSTED_PACKAGES,
                                 "com.shivam.kafka.model");
-                return new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(configProps,
+                return reported(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(configProps,
                                 new org.apache.kafka.common.serialization.StringDeserializer(),
-                                new org.springframework.kafka.support.serializer.JsonDeserializer<>(
-                                                com.shivam.kafka.model.User.class,
-                                                false));
+                                userValueDeserializer()));
         }
 
         @Bean
         public org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, com.shivam.kafka.model.User> userKafkaListenerContainerFactory() {
                 org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, com.shivam.kafka.model.User> factory = new org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<>();
                 factory.setConsumerFactory(userConsumerFactory());
+                if (endToEndLatencyEnabled) {
+                        factory.setRecordInterceptor(endToEndLatencyInterceptor());
+                }
+                if (parallelEnabled) {
+                        factory.setContainerCustomizer(new com.shivam.kafka.parallel.ParallelListenerCustomizer<>(
+                                        parallelMaxInFlight, new org.springframework.util.backoff.FixedBackOff(0L, 2L)));
+                }
                 return factory;
         }
 
@@ -136,58 +531,396 @@ public class KafkaConfig {
                 java.util.Map<String, Object> configProps = new java.util.HashMap<>();
                 configProps.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
                                 bootstrapServers);
-                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
-                                org.apache.kafka.common.serialization.StringSerializer.class);
-                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                                org.apache.kafka.common.serialization.StringSerializer.class);
                 // Enable Idempotence (default true in recent versions, but good to be explicit)
                 configProps.put(org.apache.kafka.clients.producer.ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
                 // Transactional ID Prefix enables transactions
                 configProps.put(org.apache.kafka.clients.producer.ProducerConfig.TRANSACTIONAL_ID_CONFIG, "tx-");
-                return new org.springframework.kafka.core.DefaultKafkaProducerFactory<>(configProps);
+                // Large payloads are stored before the reference is sent, inside the
+                // transaction, so the reference commits or aborts with the rest
+                return tuned("advancedProducerFactory", advancedProducerProfile, metered("advancedProducerFactory",
+                                new org.springframework.kafka.core.DefaultKafkaProducerFactory<>(configProps,
+                                                new org.apache.kafka.common.serialization.StringSerializer(),
+                                                claimCheckSerializer())));
         }
 
         @Bean
         public org.springframework.kafka.core.KafkaTemplate<String, String> advancedKafkaTemplate() {
+                // Transactions are counted by AdvancedProducer, not here: DLT redrives and
+                // retry-topic forwards run their own transactions on this template
                 return new org.springframework.kafka.core.KafkaTemplate<>(advancedProducerFactory());
         }
 
         @Bean
         public org.springframework.kafka.transaction.KafkaTransactionManager<String, String> kafkaTransactionManager(
                         org.springframework.kafka.core.ProducerFactory<String, String> advancedProducerFactory) {
+                // Not metered: Boot also hands it to the default listener container factory,
+                // whose transactions are not the advanced producer's
                 return new org.springframework.kafka.transaction.KafkaTransactionManager<>(advancedProducerFactory);
         }
 
         /**
-         * Configures a listener container factory with a Dead Letter Queue (DLQ)
-         * recovery mechanism.
-         * When retries are exhausted, the message is sent to a DLT topic
-         * (topic-name.DLT).
+         * Listener container factory for the advanced topic.
+         * <p>
+         * Retries are not handled here: failed records are forwarded to retry
+         * topics by the {@link #advancedRetryTopicConfiguration} below, so the
+         * main partition never blocks on a failing record. In parallel mode a
+         * failed record only holds up its own key, so it is retried in place with
+         * the same back off and then sent straight to the DLT.
+         * </p>
          */
         @Bean
-        public org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, String> advancedListenerContainerFactory(
-                        @org.springframework.beans.factory.annotation.Qualifier("advancedKafkaTemplate") org.springframework.kafka.core.KafkaTemplate<String, String> kafkaTemplate) {
+        public org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, String> advancedListenerContainerFactory() {
 
                 org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, String> factory = new org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<>();
-                factory.setConsumerFactory(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(
+                factory.setConsumerFactory(reported(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(
                                 java.util.Map.of(
                                                 org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
-                                                bootstrapServers,
-                                                org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
-                                                org.apache.kafka.common.serialization.StringDeserializer.class,
-                                                org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
-                                                org.apache.kafka.common.serialization.StringDeserializer.class)));
+                                                bootstrapServers),
+                                new org.apache.kafka.common.serialization.StringDeserializer(),
+                                new org.springframework.kafka.support.serializer.ErrorHandlingDeserializer<>(
+                                                claimCheckDeserializer()))));
+                if (endToEndLatencyEnabled) {
+                        factory.setRecordInterceptor(endToEndLatencyInterceptor());
+                }
+                if (parallelEnabled) {
+                        factory.setContainerCustomizer(new com.shivam.kafka.parallel.ParallelListenerCustomizer<>(
+                                        parallelMaxInFlight, advancedParallelBackOff(), advancedParallelRecoverer()));
+                }
+                return factory;
+        }
+
+        // ========================================================================
+        // Non-blocking Retries (Retry Topics + DLT)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.advanced.retry.attempts:4}")
+        private int retryAttempts;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.advanced.retry.initial-delay-ms:1000}")
+        private long retryInitialDelayMs;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.advanced.retry.multiplier:10}")
+        private double retryMultiplier;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.advanced.retry.max-delay-ms:60000}")
+        private long retryMaxDelayMs;
+
+        /**
+         * Tiered, non-blocking retries for "mastery-advanced-topic".
+         * <p>
+         * A failed record is republished to a retry topic per tier (with the
+         * defaults: mastery-advanced-topic-retry-1000, -retry-10000 and
+         * -retry-60000). The retry consumers pause the partition until the
+         * record is due instead of sleeping, and the main topic keeps flowing.
+         * After the last tier the record goes to "mastery-advanced-topic.DLT",
+         * handled by AdvancedConsumer.consumeDLT.
+         * </p>
+         */
+        @Bean
+        public org.springframework.kafka.retrytopic.RetryTopicConfiguration advancedRetryTopicConfiguration(
+                        @org.springframework.beans.factory.annotation.Qualifier("advancedKafkaTemplate") org.springframework.kafka.core.KafkaTemplate<String, String> kafkaTemplate) {
+                return org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder
+                                .newInstance()
+                                .includeTopic("mastery-advanced-topic")
+                                .maxAttempts(retryAttempts)
+                                .exponentialBackoff(retryInitialDelayMs, retryMultiplier, retryMaxDelayMs)
+                                .dltSuffix(".DLT")
+                                .dltHandlerMethod("advancedConsumer", "consumeDLT")
+                                .autoCreateTopicsWith(3, (short) 1)
+                                .create(kafkaTemplate);
+        }
+
+        /**
+         * Consumer factory for reading the DLT outside of a listener (inspection and
+         * redrive, see DltRedriveService).
+         * <p>
+         * read_committed hides DLT records from rolled-back transactions, and
+         * auto-commit is off because redrive progress is committed together with
+         * the replayed records.
+         * </p>
+         */
+        @Bean
+        public org.springframework.kafka.core.ConsumerFactory<String, String> dltConsumerFactory() {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+                                org.apache.kafka.common.serialization.StringDeserializer.class);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+                                org.apache.kafka.common.serialization.StringDeserializer.class);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.ISOLATION_LEVEL_CONFIG,
+                                "read_committed");
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+                return metered(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(configProps));
+        }
+
+        /**
+         * Consumer factory used to reload the dedup window from
+         * "mastery-json-dedup" at startup.
+         */
+        @Bean
+        public org.springframework.kafka.core.ConsumerFactory<String, String> dedupConsumerFactory() {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+                                org.apache.kafka.common.serialization.StringDeserializer.class);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+                                org.apache.kafka.common.serialization.StringDeserializer.class);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+                return metered(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(configProps));
+        }
+
+        /**
+         * Consumer factory for the materialized User view (see UserViewService).
+         * The view assigns partitions itself and tracks its own offsets in the
+         * snapshot file, so nothing is committed.
+         */
+        @Bean
+        public org.springframework.kafka.core.ConsumerFactory<String, com.shivam.kafka.model.User> userViewConsumerFactory() {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+                return metered(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(configProps,
+                                new org.apache.kafka.common.serialization.StringDeserializer(),
+                                new org.springframework.kafka.support.serializer.ErrorHandlingDeserializer<>(
+                                                userValueDeserializer())));
+        }
 
-                // Configure Error Handler with DeadLetterPublishingRecoverer
-                org.springframework.kafka.listener.DeadLetterPublishingRecoverer recoverer = new org.springframework.kafka.listener.DeadLetterPublishingRecoverer(
-                                kafkaTemplate);
+        /**
+         * Scheduler used to resume paused retry partitions once their records are
+         * due.
+         */
+        @Bean
+        public org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler taskScheduler() {
+                org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler scheduler = new org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler();
+                scheduler.setPoolSize(2);
+                scheduler.setThreadNamePrefix("kafka-scheduler-");
+                return scheduler;
+        }
 
-                // DefaultErrorHandler with 3 retries (backoff 1s)
-                org.springframework.kafka.listener.DefaultErrorHandler errorHandler = new org.springframework.kafka.listener.DefaultErrorHandler(
-                                recoverer, new org.springframework.util.backoff.FixedBackOff(1000L, 3));
+        // ========================================================================
+        // Parallel Processing (key-ordered, within a partition)
+        // ========================================================================
 
-                factory.setCommonErrorHandler(errorHandler);
+        @org.springframework.beans.factory.annotation.Value("${kafka.parallel.enabled:false}")
+        private boolean parallelEnabled;
 
+        @org.springframework.beans.factory.annotation.Value("${kafka.parallel.max-in-flight:1000}")
+        private int parallelMaxInFlight;
+
+        /**
+         * Applies parallel processing to Spring Boot's default
+         * kafkaListenerContainerFactory (used by BasicConsumer). Boot picks up a
+         * ContainerCustomizer bean automatically.
+         */
+        @Bean
+        @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(name = "kafka.parallel.enabled", havingValue = "true")
+        public com.shivam.kafka.parallel.ParallelListenerCustomizer<Object, Object> parallelListenerCustomizer() {
+                return new com.shivam.kafka.parallel.ParallelListenerCustomizer<>(parallelMaxInFlight,
+                                new org.springframework.util.backoff.FixedBackOff(0L, 2L));
+        }
+
+        /**
+         * In-place retries for the advanced listener in parallel mode, mirroring
+         * the retry topic tiers (kafka.advanced.retry.*).
+         */
+        private org.springframework.util.backoff.BackOff advancedParallelBackOff() {
+                org.springframework.kafka.support.ExponentialBackOffWithMaxRetries backOff = new org.springframework.kafka.support.ExponentialBackOffWithMaxRetries(
+                                retryAttempts - 1);
+                backOff.setInitialInterval(retryInitialDelayMs);
+                backOff.setMultiplier(retryMultiplier);
+                backOff.setMaxInterval(retryMaxDelayMs);
+                return backOff;
+        }
+
+        /**
+         * Publishes records whose in-place retries are exhausted to
+         * "mastery-advanced-topic.DLT", where consumeDLT and the redrive endpoints
+         * pick them up.
+         */
+        private org.springframework.kafka.listener.DeadLetterPublishingRecoverer advancedParallelRecoverer() {
+                return new org.springframework.kafka.listener.DeadLetterPublishingRecoverer(advancedKafkaTemplate(),
+                                (record, ex) -> new org.apache.kafka.common.TopicPartition(record.topic() + ".DLT", -1));
+        }
+
+        // ========================================================================
+        // Batch Configuration (high-volume listeners)
+        // ========================================================================
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.batch.max-poll-records:500}")
+        private int batchMaxPollRecords;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.batch.fetch-min-bytes:65536}")
+        private int batchFetchMinBytes;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.batch.fetch-max-wait-ms:100}")
+        private int batchFetchMaxWaitMs;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.batch.max-partition-fetch-bytes:1048576}")
+        private int batchMaxPartitionFetchBytes;
+
+        /**
+         * Consumer properties shared by the batch factories.
+         * <p>
+         * max.poll.records bounds the size of each delivered batch, while
+         * fetch.min.bytes / fetch.max.wait.ms let the broker accumulate data so a
+         * poll returns a full batch instead of a handful of records.
+         * </p>
+         */
+        private java.util.Map<String, Object> batchConsumerProps(String groupId) {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.GROUP_ID_CONFIG, groupId);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+                                batchMaxPollRecords);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.FETCH_MIN_BYTES_CONFIG,
+                                batchFetchMinBytes);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG,
+                                batchFetchMaxWaitMs);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG,
+                                batchMaxPartitionFetchBytes);
+                return configProps;
+        }
+
+        /**
+         * Error handler for batch listeners.
+         * <p>
+         * When a listener throws a BatchListenerFailedException, the offsets of the
+         * records before the failed one are committed and only the failed record
+         * (plus the remainder of the batch) is redelivered. After the retries are
+         * exhausted the failed record is logged and skipped.
+         * </p>
+         */
+        private org.springframework.kafka.listener.DefaultErrorHandler batchErrorHandler() {
+                return new org.springframework.kafka.listener.DefaultErrorHandler(
+                                new org.springframework.util.backoff.FixedBackOff(0L, 2L));
+        }
+
+        /**
+         * Batch listener factory for String topics (used by BasicConsumer in batch
+         * mode).
+         */
+        @Bean
+        public org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, String> batchListenerContainerFactory() {
+                org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, String> factory = new org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<>();
+                factory.setConsumerFactory(reported(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(
+                                batchConsumerProps("beginner-group"),
+                                new org.apache.kafka.common.serialization.StringDeserializer(),
+                                new org.springframework.kafka.support.serializer.ErrorHandlingDeserializer<>(
+                                                claimCheckDeserializer()))));
+                factory.setBatchListener(true);
+                factory.setBatchInterceptor(batchSizeInterceptor());
+                factory.setCommonErrorHandler(batchErrorHandler());
                 return factory;
         }
+
+        /**
+         * Batch listener factory for User JSON records (used by JsonConsumer in batch
+         * mode).
+         * <p>
+         * The User deserializer is wrapped in an ErrorHandlingDeserializer so that a
+         * single malformed record arrives as a null value instead of failing the
+         * whole poll.
+         * </p>
+         */
+        @Bean
+        public org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, com.shivam.kafka.model.User> userBatchListenerContainerFactory() {
+                org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<String, com.shivam.kafka.model.User> factory = new org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory<>();
+                factory.setConsumerFactory(reported(new org.springframework.kafka.core.DefaultKafkaConsumerFactory<>(
+                                batchConsumerProps("json-group"),
+                                new org.apache.kafka.common.serialization.StringDeserializer(),
+                                new org.springframework.kafka.support.serializer.ErrorHandlingDeserializer<>(
+                                                userValueDeserializer()))));
+                factory.setBatchListener(true);
+                factory.setBatchInterceptor(batchSizeInterceptor());
+                factory.setCommonErrorHandler(batchErrorHandler());
+                return factory;
+        }
+
+        // ========================================================================
+        // Reactive Kafka (reactor-kafka sender and receiver for the reactive endpoints)
+        // ========================================================================
+
+        /**
+         * Sends unacknowledged by the broker per reactive sender. This is the
+         * demand the reactive endpoints pass upstream: once it is reached, the
+         * sender stops requesting records and the HTTP request body is no longer
+         * read.
+         */
+        @org.springframework.beans.factory.annotation.Value("${kafka.reactive.max-in-flight:1024}")
+        private int reactiveMaxInFlight;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.reactive.transactional-id:reactive-tx-1}")
+        private String reactiveTransactionalId;
+
+        @org.springframework.beans.factory.annotation.Value("${kafka.reactive.consumer.group-id:json-group}")
+        private String reactiveConsumerGroupId;
+
+        /**
+         * Non-transactional reactive sender for String and User values (same
+         * serializers and tuning profile as sharedProducerFactory; no hot-key
+         * partitioner, as it also carries String records).
+         * A failed record is reported in its SenderResult instead of ending the
+         * stream.
+         */
+        @Bean
+        @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(name = "kafka.reactive.enabled", havingValue = "true")
+        public reactor.kafka.sender.KafkaSender<String, Object> reactiveKafkaSender() {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.putAll(ProducerTuningProfile.from(sharedProducerProfile).configs());
+                return reactor.kafka.sender.KafkaSender.create(reactor.kafka.sender.SenderOptions.<String, Object>create(configProps)
+                                .withKeySerializer(new org.apache.kafka.common.serialization.StringSerializer())
+                                .withValueSerializer(valueSerializerByType())
+                                .maxInFlight(reactiveMaxInFlight)
+                                .stopOnError(false));
+        }
+
+        /**
+         * Transactional reactive sender for the advanced topic. One transaction
+         * can be open at a time, so callers take turns (see ReactiveIngestHandler).
+         */
+        @Bean
+        @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(name = "kafka.reactive.enabled", havingValue = "true")
+        public reactor.kafka.sender.KafkaSender<String, String> reactiveTransactionalSender() {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.putAll(ProducerTuningProfile.from(advancedProducerProfile).configs());
+                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+                configProps.put(org.apache.kafka.clients.producer.ProducerConfig.TRANSACTIONAL_ID_CONFIG,
+                                reactiveTransactionalId);
+                return reactor.kafka.sender.KafkaSender.create(reactor.kafka.sender.SenderOptions.<String, String>create(configProps)
+                                .withKeySerializer(new org.apache.kafka.common.serialization.StringSerializer())
+                                .withValueSerializer(claimCheckSerializer())
+                                .maxInFlight(reactiveMaxInFlight));
+        }
+
+        /**
+         * Receiver options of the reactive User consumer. By default it joins
+         * "json-group", so it shares the partitions (and the dedup window) with
+         * JsonConsumer instead of consuming every record a second time.
+         */
+        @Bean
+        @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(name = "kafka.reactive.consumer.enabled", havingValue = "true")
+        public reactor.kafka.receiver.ReceiverOptions<String, com.shivam.kafka.model.User> reactiveUserReceiverOptions() {
+                java.util.Map<String, Object> configProps = new java.util.HashMap<>();
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.GROUP_ID_CONFIG,
+                                reactiveConsumerGroupId);
+                configProps.put(org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+                return reactor.kafka.receiver.ReceiverOptions.<String, com.shivam.kafka.model.User>create(configProps)
+                                .withKeyDeserializer(new org.apache.kafka.common.serialization.StringDeserializer())
+                                .withValueDeserializer(new org.springframework.kafka.support.serializer.ErrorHandlingDeserializer<>(
+                                                userValueDeserializer()))
+                                .subscription(java.util.List.of("mastery-json-topic"));
+        }
 }
@@ -0,0 +1,82 @@
+package com.shivam.kafka.config;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.shivam.kafka.advanced.AdvancedConsumer;
+import com.shivam.kafka.beginner.BasicConsumer;
+import com.shivam.kafka.intermediate.JsonConsumer;
+import com.shivam.kafka.metrics.FirstRecordInterceptor;
+import com.shivam.kafka.metrics.SendTimestampInterceptor;
+import com.shivam.kafka.model.User;
+import com.shivam.kafka.partitioning.HotKeyAwarePartitioner;
+import com.shivam.kafka.serialization.LazyUser;
+import com.shivam.kafka.serialization.LazyUserDeserializer;
+import com.shivam.kafka.serialization.UserBinaryDeserializer;
+import com.shivam.kafka.serialization.UserBinarySerializer;
+
+/**
+ * Reflection hints for a native image (mvn -Pnative native:compile).
+ * <p>
+ * Spring AOT generates the bean definitions of KafkaConfig and the other
+ * components at build time, but cannot see what Kafka and Jackson load by
+ * name at runtime:
+ * </p>
+ * <ul>
+ * <li>serializers, deserializers, the partitioner and the interceptors set as
+ * class names in the producer and consumer configs;</li>
+ * <li>User, bound by the JsonSerializer / JsonDeserializer (trusted package
+ * com.shivam.kafka.model) with its getters and setters;</li>
+ * <li>the listener methods, invoked reflectively by the listener containers,
+ * and consumeDLT, looked up by name for the DLT.</li>
+ * </ul>
+ *
+ * @author Shivam Srivastav
+ */
+class KafkaRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> KAFKA_PLUGINS = List.of(
+            StringSerializer.class, StringDeserializer.class, ByteArraySerializer.class,
+            JsonSerializer.class, JsonDeserializer.class, ErrorHandlingDeserializer.class,
+            UserBinarySerializer.class, UserBinaryDeserializer.class, LazyUserDeserializer.class,
+            HotKeyAwarePartitioner.class, SendTimestampInterceptor.class, FirstRecordInterceptor.class);
+
+    private static final List<Class<?>> LISTENERS = List.of(
+            BasicConsumer.class, JsonConsumer.class, AdvancedConsumer.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> plugin : KAFKA_PLUGINS) {
+            hints.reflection().registerType(plugin, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), User.class,
+                LazyUser.class);
+
+        for (Class<?> listener : LISTENERS) {
+            for (Method method : listener.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(KafkaListener.class)) {
+                    hints.reflection().registerMethod(method, ExecutableMode.INVOKE);
+                }
+            }
+        }
+        for (Method method : AdvancedConsumer.class.getDeclaredMethods()) {
+            if (method.getName().equals("consumeDLT")) {
+                hints.reflection().registerMethod(method, ExecutableMode.INVOKE);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.shivam.kafka.config;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+/**
+ * Batching and compression presets that can be chosen per producer factory
+ * (kafka.producer.&lt;basic|user|advanced&gt;.profile).
+ * <p>
+ * linger.ms and batch.size decide how long the producer waits to fill a batch
+ * and how large it may grow: larger batches mean fewer requests and better
+ * compression, at the cost of the time records wait in the accumulator.
+ * </p>
+ * <ul>
+ * <li>DEFAULT: client defaults (linger.ms=0, batch.size=16KB, no
+ * compression).</li>
+ * <li>LATENCY: send immediately, small batches, no compression.</li>
+ * <li>BALANCED: a few ms of linger, 64KB batches, lz4.</li>
+ * <li>THROUGHPUT: long linger, 256KB batches, zstd and a larger buffer.</li>
+ * <li>ADAPTIVE: starts as BALANCED, then linger.ms and batch.size are tuned at
+ * runtime by {@link AdaptiveProducerTuner}.</li>
+ * </ul>
+ *
+ * @author Shivam Srivastav
+ */
+public enum ProducerTuningProfile {
+
+    DEFAULT(Map.of()),
+    LATENCY(Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 0,
+            ProducerConfig.BATCH_SIZE_CONFIG, 16_384,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "none")),
+    BALANCED(Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 5,
+            ProducerConfig.BATCH_SIZE_CONFIG, 65_536,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4")),
+    THROUGHPUT(Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 50,
+            ProducerConfig.BATCH_SIZE_CONFIG, 262_144,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd",
+            ProducerConfig.BUFFER_MEMORY_CONFIG, 134_217_728L)),
+    ADAPTIVE(BALANCED.configs);
+
+    private final Map<String, Object> configs;
+
+    ProducerTuningProfile(Map<String, Object> configs) {
+        this.configs = configs;
+    }
+
+    /**
+     * @return the producer properties this profile sets on top of a factory's
+     *         own configuration.
+     */
+    public Map<String, Object> configs() {
+        return configs;
+    }
+
+    /**
+     * Parses the profile name, case-insensitively.
+     */
+    public static ProducerTuningProfile from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown producer tuning profile: " + value, e);
+        }
+    }
+}
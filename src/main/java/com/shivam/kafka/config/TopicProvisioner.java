@@ -0,0 +1,86 @@
+package com.shivam.kafka.config;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when the NewTopic beans of KafkaConfig are created on the broker
+ * (kafka.topics.provisioning).
+ * <ul>
+ * <li>SYNC: KafkaAdmin creates missing topics while the context starts (the
+ * Spring Kafka default). Startup waits for an admin client round trip and
+ * fails to serve until the broker answers.</li>
+ * <li>ASYNC: the context starts first and the topics are created in the
+ * background once it has started. Use it when the topics normally exist
+ * already, e.g. pods scaling out: on the very first start, listeners may
+ * subscribe before the topics exist, and a broker with
+ * auto.create.topics.enable creates them with its default partition
+ * count.</li>
+ * <li>SKIP: no admin client at all; the topics are managed elsewhere.</li>
+ * </ul>
+ * <p>
+ * KafkaAdmin creates topics once all singletons are instantiated, so turning
+ * off its auto-create from this constructor happens in time.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Component
+public class TopicProvisioner {
+
+    private static final Logger log = LoggerFactory.getLogger(TopicProvisioner.class);
+
+    public enum Mode {
+        SYNC, ASYNC, SKIP;
+
+        /**
+         * Parses the mode name, case-insensitively.
+         */
+        public static Mode from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown topic provisioning mode: " + value, e);
+            }
+        }
+    }
+
+    private final KafkaAdmin kafkaAdmin;
+    private final Mode mode;
+
+    public TopicProvisioner(KafkaAdmin kafkaAdmin, @Value("${kafka.topics.provisioning:sync}") String mode) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.mode = Mode.from(mode);
+        if (this.mode != Mode.SYNC) {
+            kafkaAdmin.setAutoCreate(false);
+        }
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    void provision() {
+        if (mode != Mode.ASYNC) {
+            return;
+        }
+        Thread.ofVirtual().name("topic-provisioner").start(() -> {
+            long start = System.nanoTime();
+            try {
+                if (kafkaAdmin.initialize()) {
+                    log.info("Topics provisioned in {} ms",
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } else {
+                    log.warn("Topic provisioning failed, broker not available; topics must be created by other means");
+                }
+            } catch (RuntimeException e) {
+                log.warn("Topic provisioning failed; topics must be created by other means", e);
+            }
+        });
+    }
+}
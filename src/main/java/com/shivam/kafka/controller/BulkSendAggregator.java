@@ -0,0 +1,143 @@
+package com.shivam.kafka.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.support.SendResult;
+
+import com.shivam.kafka.model.BulkSendResult;
+import com.shivam.kafka.model.BulkSendResult.PartitionOffsets;
+
+/**
+ * Collects the outcome of the sends issued for one bulk request.
+ * <p>
+ * Send futures are tracked as they are created and folded into running counts
+ * when the broker acknowledges them, so a bulk request never has to keep one
+ * future per record in memory. The reactive endpoints report outcomes that
+ * are already known with {@link #record(RecordMetadata, Exception)} and read
+ * {@link #result()} once their send stream completes.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public class BulkSendAggregator {
+
+    private static final int MAX_ERRORS = 10;
+
+    private final String topic;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private volatile boolean sealed;
+
+    // Guarded by "this"
+    private long succeeded;
+    private long failed;
+    private final Map<Integer, long[]> offsets = new TreeMap<>();
+    private final List<String> errors = new ArrayList<>();
+
+    public BulkSendAggregator(String topic) {
+        this.topic = topic;
+    }
+
+    /**
+     * Registers a send that has been handed to the producer.
+     */
+    void track(CompletableFuture<? extends SendResult<?, ?>> future) {
+        accepted.incrementAndGet();
+        pending.incrementAndGet();
+        future.whenComplete((result, ex) -> {
+            if (ex == null) {
+                onSuccess(result.getRecordMetadata());
+            } else {
+                onFailure(ex.getMessage());
+            }
+            if (pending.decrementAndGet() == 0 && sealed) {
+                done.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Records a line that never reached the producer (parse error, synchronous
+     * send failure).
+     */
+    public void reject(long lineNumber, Exception e) {
+        accepted.incrementAndGet();
+        onFailure("line " + lineNumber + ": " + e.getMessage());
+    }
+
+    /**
+     * Marks every accepted record as failed, e.g. when the surrounding
+     * transaction was rolled back.
+     */
+    public synchronized void abort(long count, Throwable e) {
+        accepted.set(count);
+        succeeded = 0;
+        failed = count;
+        offsets.clear();
+        addError("transaction rolled back: " + e.getMessage());
+    }
+
+    /**
+     * Records a send whose outcome is already known.
+     * 
+     * @param metadata  Where the record was written (null if it failed).
+     * @param exception Why the send failed, or null.
+     */
+    public void record(RecordMetadata metadata, Exception exception) {
+        accepted.incrementAndGet();
+        if (exception == null) {
+            onSuccess(metadata);
+        } else {
+            onFailure(exception.getMessage());
+        }
+    }
+
+    /**
+     * Waits for every tracked send to complete and builds the response.
+     */
+    BulkSendResult awaitResult() {
+        sealed = true;
+        if (pending.get() == 0) {
+            done.complete(null);
+        }
+        done.join();
+        return result();
+    }
+
+    /**
+     * Builds the response from the outcomes recorded so far.
+     */
+    public synchronized BulkSendResult result() {
+        Map<Integer, PartitionOffsets> ranges = new TreeMap<>();
+        offsets.forEach((partition, range) -> ranges.put(partition,
+                new PartitionOffsets(range[0], range[1], range[2])));
+        return new BulkSendResult(topic, accepted.get(), succeeded, failed, ranges, List.copyOf(errors));
+    }
+
+    private synchronized void onSuccess(RecordMetadata metadata) {
+        succeeded++;
+        long[] range = offsets.computeIfAbsent(metadata.partition(),
+                p -> new long[] { Long.MAX_VALUE, Long.MIN_VALUE, 0 });
+        range[0] = Math.min(range[0], metadata.offset());
+        range[1] = Math.max(range[1], metadata.offset());
+        range[2]++;
+    }
+
+    private synchronized void onFailure(String error) {
+        failed++;
+        addError(error);
+    }
+
+    private void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+}
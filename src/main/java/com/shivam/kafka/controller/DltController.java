@@ -0,0 +1,103 @@
+package com.shivam.kafka.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.shivam.kafka.advanced.DltRedriveService;
+import com.shivam.kafka.model.DltRecord;
+import com.shivam.kafka.model.RedriveStatus;
+
+/**
+ * REST Controller to inspect the advanced DLT and replay it (Advanced
+ * Concept).
+ * 
+ * @author Shivam Srivastav
+ */
+@RestController
+@RequestMapping("/api/kafka/dlt")
+public class DltController {
+
+    private final DltRedriveService redriveService;
+
+    @Value("${kafka.dlt.redrive.rate-per-second:100}")
+    private double defaultRatePerSecond;
+
+    @Value("${kafka.dlt.redrive.batch-size:100}")
+    private int defaultBatchSize;
+
+    @Value("${kafka.dlt.inspect.max-records:500}")
+    private int maxInspectRecords;
+
+    public DltController(DltRedriveService redriveService) {
+        this.redriveService = redriveService;
+    }
+
+    /**
+     * Lists dead-lettered records, optionally narrowed by partition, offset range
+     * and exception.
+     * Usage: GET /api/kafka/dlt/records?partition=0&from=10&to=20&exception=RuntimeException
+     */
+    @GetMapping("/records")
+    public List<DltRecord> inspect(@RequestParam(required = false) Integer partition,
+            @RequestParam(required = false) Long from, @RequestParam(required = false) Long to,
+            @RequestParam(required = false) String exception, @RequestParam(defaultValue = "100") int limit) {
+        return redriveService.inspect(partition, from, to, exception, Math.min(Math.max(limit, 1), maxInspectRecords));
+    }
+
+    /**
+     * Starts replaying the DLT to the advanced topic (or targetTopic). Starting a
+     * redrive with the name of an interrupted one resumes it.
+     * Usage: POST /api/kafka/dlt/redrive?name=incident-42&ratePerSecond=50&exception=RuntimeException
+     */
+    @PostMapping("/redrive")
+    public RedriveStatus startRedrive(@RequestParam String name,
+            @RequestParam(required = false) Double ratePerSecond,
+            @RequestParam(required = false) Integer batchSize,
+            @RequestParam(required = false) String exception,
+            @RequestParam(defaultValue = "mastery-advanced-topic") String targetTopic) {
+        double rate = ratePerSecond != null ? ratePerSecond : defaultRatePerSecond;
+        int batch = batchSize != null ? batchSize : defaultBatchSize;
+        if (!name.matches("[A-Za-z0-9._-]+")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "name may only contain letters, digits, '.', '_' and '-'");
+        }
+        if (rate <= 0 || batch <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ratePerSecond and batchSize must be positive");
+        }
+        try {
+            return redriveService.start(name, targetTopic, rate, batch, exception);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Progress of the current (or last) redrive.
+     * Usage: GET /api/kafka/dlt/redrive
+     */
+    @GetMapping("/redrive")
+    public RedriveStatus redriveStatus() {
+        return redriveService.status()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No redrive has been started"));
+    }
+
+    /**
+     * Stops the running redrive after its current batch; it can be resumed by
+     * starting it again with the same name.
+     * Usage: DELETE /api/kafka/dlt/redrive
+     */
+    @DeleteMapping("/redrive")
+    public RedriveStatus stopRedrive() {
+        return redriveService.stop()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No redrive has been started"));
+    }
+}
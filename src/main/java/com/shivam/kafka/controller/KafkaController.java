@@ -1,20 +1,47 @@
 package com.shivam.kafka.controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shivam.kafka.admission.AdmissionControl;
+import com.shivam.kafka.admission.AdmissionRejectedException;
 import com.shivam.kafka.advanced.AdvancedProducer;
 import com.shivam.kafka.beginner.BasicProducer;
+import com.shivam.kafka.config.AcksPolicy;
 import com.shivam.kafka.intermediate.JsonProducer;
+import com.shivam.kafka.model.BulkSendResult;
+import com.shivam.kafka.model.SendReceipt;
 import com.shivam.kafka.model.User;
+import com.shivam.kafka.model.UserIds;
 
 /**
  * REST Controller to trigger various Kafka producer scenarios.
+ * <p>
+ * Sends go through {@link AdmissionControl}: when a topic's in-flight budget
+ * is exhausted the request is answered with 429 Too Many Requests and a
+ * Retry-After header, unless the caller passed waitMs to queue for budget.
+ * </p>
  * 
  * @author Shivam Srivastav
  */
@@ -24,24 +51,43 @@ public class KafkaController {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaController.class);
 
+    private static final String BEGINNER_TOPIC = "mastery-beginner-topic";
+    private static final String JSON_TOPIC = "mastery-json-topic";
+    private static final String ADVANCED_TOPIC = "mastery-advanced-topic";
+
     private final BasicProducer basicProducer;
     private final JsonProducer jsonProducer;
     private final AdvancedProducer advancedProducer;
+    private final ObjectMapper objectMapper;
+    private final AdmissionControl admission;
+
+    @Value("${kafka.async.acks.beginner:all}")
+    private String beginnerAcks;
+
+    @Value("${kafka.async.acks.intermediate:all}")
+    private String intermediateAcks;
+
+    @Value("${kafka.admission.bulk-wait-ms:5000}")
+    private long bulkWaitMs;
 
     @Autowired
-    public KafkaController(BasicProducer basicProducer, JsonProducer jsonProducer, AdvancedProducer advancedProducer) {
+    public KafkaController(BasicProducer basicProducer, JsonProducer jsonProducer, AdvancedProducer advancedProducer,
+            ObjectMapper objectMapper, AdmissionControl admission) {
         this.basicProducer = basicProducer;
         this.jsonProducer = jsonProducer;
         this.advancedProducer = advancedProducer;
+        this.objectMapper = objectMapper;
+        this.admission = admission;
     }
 
     /**
      * Sends a simple string message (Beginner Concept).
-     * Usage: POST /api/kafka/beginner/send?message=Hello
+     * Usage: POST /api/kafka/beginner/send?message=Hello&waitMs=200
      */
     @PostMapping("/beginner/send")
-    public String sendBasicMessage(@RequestParam String message) {
-        basicProducer.sendMessage(message);
+    public String sendBasicMessage(@RequestParam String message, @RequestParam(defaultValue = "0") long waitMs) {
+        admission.admit(BEGINNER_TOPIC, message.length(), Duration.ofMillis(waitMs),
+                () -> basicProducer.sendMessage(message));
         return "Basic message sent: " + message;
     }
 
@@ -50,9 +96,10 @@ public class KafkaController {
      * Usage: POST /api/kafka/intermediate/send?name=John&email=john@example.com
      */
     @PostMapping("/intermediate/send")
-    public String sendJsonMessage(@RequestParam String name, @RequestParam String email) {
-        User user = new User(System.currentTimeMillis(), name, email);
-        jsonProducer.sendUser(user);
+    public String sendJsonMessage(@RequestParam String name, @RequestParam String email,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        User user = new User(UserIds.next(), name, email);
+        admission.admit(JSON_TOPIC, estimatedSize(user), Duration.ofMillis(waitMs), () -> jsonProducer.sendUser(user));
         return "JSON message sent for user: " + user;
     }
 
@@ -61,15 +108,219 @@ public class KafkaController {
      * Usage: POST /api/kafka/advanced/send?message=TransactionTest
      * To simulate failure: POST /api/kafka/advanced/send?message=fail
      * To simulate consumer error (DLQ): POST /api/kafka/advanced/send?message=error
+     * When transaction coalescing is enabled, concurrent calls share one
+     * transaction instead of opening one each.
      */
     @PostMapping("/advanced/send")
-    public String sendAdvancedMessage(@RequestParam String message) {
+    public String sendAdvancedMessage(@RequestParam String message, @RequestParam(defaultValue = "0") long waitMs) {
         try {
-            advancedProducer.sendMessageInTransaction(message);
+            admission.admit(ADVANCED_TOPIC, message.length(), Duration.ofMillis(waitMs), () -> {
+                if (advancedProducer.isCoalescing()) {
+                    return advancedProducer.sendMessageAsync(message);
+                }
+                advancedProducer.sendMessageInTransaction(message);
+                return CompletableFuture.completedFuture(null);
+            }).join();
             return "Advanced message sent transactionally: " + message;
+        } catch (AdmissionRejectedException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Transaction failed", e);
-            return "Transaction failed: " + e.getMessage();
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Transaction failed", cause);
+            return "Transaction failed: " + cause.getMessage();
+        }
+    }
+
+    /**
+     * Sends every line of the request body as a separate message (Beginner
+     * Concept, bulk variant).
+     * <p>
+     * The body is read line by line and each line is handed to the producer as
+     * soon as it is parsed, so the whole body is never buffered and sends are
+     * pipelined instead of waiting for one ack per HTTP request. When the
+     * topic's in-flight budget is exhausted, reading waits for budget (up to
+     * kafka.admission.bulk-wait-ms per line), so the upload itself is slowed
+     * down; lines that still do not fit are counted as failed.
+     * </p>
+     * Usage: curl -X POST --data-binary @messages.txt /api/kafka/beginner/bulk
+     */
+    @PostMapping("/beginner/bulk")
+    public BulkSendResult sendBasicBulk(Reader body) throws IOException {
+        BulkSendAggregator aggregator = new BulkSendAggregator(BEGINNER_TOPIC);
+        Duration wait = Duration.ofMillis(bulkWaitMs);
+        try (BufferedReader reader = new BufferedReader(body)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String message = line;
+                try {
+                    aggregator.track(admission.admitWithin(BEGINNER_TOPIC, message.length(), wait,
+                            () -> basicProducer.sendMessage(message)));
+                } catch (RuntimeException e) {
+                    aggregator.reject(lineNumber, e);
+                }
+            }
+        }
+        return aggregator.awaitResult();
+    }
+
+    /**
+     * Sends an NDJSON body (one User object per line) (Intermediate Concept, bulk
+     * variant).
+     * <p>
+     * Lines that are not valid User JSON are counted as failed without stopping
+     * the rest of the upload. Users without an id get one assigned, like the
+     * single-record endpoint does. Admission control applies per line as in
+     * the beginner bulk endpoint.
+     * </p>
+     * Usage: curl -X POST --data-binary @users.ndjson /api/kafka/intermediate/bulk
+     */
+    @PostMapping("/intermediate/bulk")
+    public BulkSendResult sendJsonBulk(Reader body) throws IOException {
+        BulkSendAggregator aggregator = new BulkSendAggregator(JSON_TOPIC);
+        Duration wait = Duration.ofMillis(bulkWaitMs);
+        try (BufferedReader reader = new BufferedReader(body)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    User user = objectMapper.readValue(line, User.class);
+                    if (user.getId() == null) {
+                        user.setId(UserIds.next());
+                    }
+                    aggregator.track(admission.admitWithin(JSON_TOPIC, estimatedSize(user), wait,
+                            () -> jsonProducer.sendUser(user)));
+                } catch (IOException | RuntimeException e) {
+                    aggregator.reject(lineNumber, e);
+                }
+            }
+        }
+        return aggregator.awaitResult();
+    }
+
+    /**
+     * Sends every line of the request body in one transaction (Advanced Concept,
+     * bulk variant).
+     * <p>
+     * The upload is all-or-nothing: if any line fails (e.g. contains "fail"),
+     * the transaction is rolled back and every record is reported as failed.
+     * Not subject to admission control: the records are only visible once the
+     * whole upload commits, and waiting for budget inside the transaction
+     * could stall on budget held by the same upload.
+     * </p>
+     * Usage: curl -X POST --data-binary @messages.txt /api/kafka/advanced/bulk
+     */
+    @PostMapping("/advanced/bulk")
+    public BulkSendResult sendAdvancedBulk(Reader body) throws IOException {
+        BulkSendAggregator aggregator = new BulkSendAggregator(ADVANCED_TOPIC);
+        AtomicLong count = new AtomicLong();
+        try (BufferedReader reader = new BufferedReader(body)) {
+            Iterator<String> lines = reader.lines()
+                    .filter(line -> !line.isBlank())
+                    .peek(line -> count.incrementAndGet())
+                    .iterator();
+            advancedProducer.sendMessagesInTransaction(lines).forEach(aggregator::track);
+        } catch (RuntimeException e) {
+            log.error("Bulk transaction failed", e);
+            aggregator.abort(count.get(), e);
         }
+        return aggregator.awaitResult();
+    }
+
+    /**
+     * Sends a simple string message and waits for the broker ack without holding
+     * a request thread (Beginner Concept, async variant).
+     * <p>
+     * acks defaults to kafka.async.acks.beginner and can be overridden per call
+     * with 0, 1 or all.
+     * </p>
+     * Usage: POST /api/kafka/beginner/send-async?message=Hello&acks=1&waitMs=200
+     */
+    @PostMapping("/beginner/send-async")
+    public CompletableFuture<SendReceipt> sendBasicMessageAsync(@RequestParam String message,
+            @RequestParam(required = false) String acks, @RequestParam(defaultValue = "0") long waitMs) {
+        AcksPolicy policy = resolveAcks(acks, beginnerAcks);
+        return acknowledged(admission.admit(BEGINNER_TOPIC, message.length(), Duration.ofMillis(waitMs),
+                () -> basicProducer.sendMessageAsync(message, policy)));
+    }
+
+    /**
+     * Sends a JSON User object and waits for the broker ack without holding a
+     * request thread (Intermediate Concept, async variant).
+     * Usage: POST /api/kafka/intermediate/send-async?name=John&email=john@example.com&acks=all
+     */
+    @PostMapping("/intermediate/send-async")
+    public CompletableFuture<SendReceipt> sendJsonMessageAsync(@RequestParam String name, @RequestParam String email,
+            @RequestParam(required = false) String acks, @RequestParam(defaultValue = "0") long waitMs) {
+        AcksPolicy policy = resolveAcks(acks, intermediateAcks);
+        User user = new User(UserIds.next(), name, email);
+        return acknowledged(admission.admit(JSON_TOPIC, estimatedSize(user), Duration.ofMillis(waitMs),
+                () -> jsonProducer.sendUserAsync(user, policy)));
+    }
+
+    /**
+     * Sends a message transactionally and completes once the transaction has
+     * committed (Advanced Concept, async variant). Transactions always use
+     * acks=all.
+     * Usage: POST /api/kafka/advanced/send-async?message=TransactionTest
+     */
+    @PostMapping("/advanced/send-async")
+    public CompletableFuture<SendReceipt> sendAdvancedMessageAsync(@RequestParam String message,
+            @RequestParam(required = false) String acks, @RequestParam(defaultValue = "0") long waitMs) {
+        if (acks != null && resolveAcks(acks, null) != AcksPolicy.ALL) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transactional sends require acks=all");
+        }
+        return acknowledged(admission.admit(ADVANCED_TOPIC, message.length(), Duration.ofMillis(waitMs),
+                () -> advancedProducer.sendMessageAsync(message)));
+    }
+
+    /**
+     * Answers a send that did not fit in its topic's in-flight budget with 429
+     * Too Many Requests and a Retry-After header (in seconds).
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> admissionRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
+
+    /**
+     * Approximate serialized size of a User, for the in-flight byte budget.
+     */
+    private static int estimatedSize(User user) {
+        return 32 + length(user.getName()) + length(user.getEmail());
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static AcksPolicy resolveAcks(String requested, String configured) {
+        try {
+            return AcksPolicy.from(requested != null ? requested : configured);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maps a failed send to 502 Bad Gateway so clients can tell a broker-side
+     * failure from a bad request.
+     */
+    private static CompletableFuture<SendReceipt> acknowledged(CompletableFuture<SendReceipt> future) {
+        return future.exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            log.error("Async send failed", cause);
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Send failed: " + cause.getMessage(), cause);
+        });
     }
 }
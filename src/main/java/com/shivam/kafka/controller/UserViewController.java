@@ -0,0 +1,60 @@
+package com.shivam.kafka.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.shivam.kafka.intermediate.UserViewService;
+import com.shivam.kafka.model.User;
+
+/**
+ * REST Controller to query the materialized User view (Intermediate Concept).
+ * 
+ * @author Shivam Srivastav
+ */
+@RestController
+@RequestMapping("/api/kafka/users")
+@ConditionalOnProperty(name = "kafka.users.view.enabled", havingValue = "true", matchIfMissing = true)
+public class UserViewController {
+
+    private final UserViewService userViewService;
+
+    @Value("${kafka.users.view.max-range:1000}")
+    private int maxRange;
+
+    public UserViewController(UserViewService userViewService) {
+        this.userViewService = userViewService;
+    }
+
+    /**
+     * Returns the latest version of a user.
+     * Usage: GET /api/kafka/users/1
+     */
+    @GetMapping("/{id}")
+    public User get(@PathVariable long id) {
+        return userViewService.get(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown user " + id));
+    }
+
+    /**
+     * Returns users with ids in [fromId, toId], ordered by id.
+     * Usage: GET /api/kafka/users?fromId=1&toId=100&limit=50
+     */
+    @GetMapping
+    public List<User> range(@RequestParam(defaultValue = "0") long fromId,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long toId,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (fromId > toId) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fromId must not be greater than toId");
+        }
+        return userViewService.range(fromId, toId, Math.min(Math.max(limit, 1), maxRange));
+    }
+}
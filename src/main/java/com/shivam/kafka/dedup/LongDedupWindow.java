@@ -0,0 +1,247 @@
+package com.shivam.kafka.dedup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded set of long keys, evicted in insertion order once they are older
+ * than the ttl or when the window is full.
+ * <p>
+ * Keys live in an open-addressing table (linear probing, backward-shift
+ * deletion) and in a ring buffer that records insertion order and time, all
+ * in preallocated long arrays, so lookups and inserts allocate nothing. The
+ * arrays can live off-heap (direct buffers), which keeps multi-million entry
+ * windows out of the GC's way.
+ * </p>
+ * <p>
+ * Thread safe; every operation holds a short lock.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public final class LongDedupWindow {
+
+    /** Marks a free table slot; the key Long.MIN_VALUE itself is tracked in a flag. */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final LongSlots table;
+    private final int mask;
+    private final LongSlots ringKeys;
+    private final LongSlots ringTimes;
+    private final int capacity;
+    private final long ttlMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int head;
+    private int size;
+    private boolean containsEmptyKey;
+    private long expiredEvictions;
+    private long capacityEvictions;
+
+    /**
+     * @param capacity  Maximum number of keys.
+     * @param ttlMillis How long a key is kept.
+     * @param offHeap   Store the arrays in direct buffers instead of the heap.
+     */
+    public LongDedupWindow(int capacity, long ttlMillis, boolean offHeap) {
+        if (capacity < 1 || capacity > (1 << 26)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^26: " + capacity);
+        }
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.table = offHeap ? new DirectLongSlots(tableSize) : new HeapLongSlots(tableSize);
+        this.mask = tableSize - 1;
+        this.ringKeys = offHeap ? new DirectLongSlots(capacity) : new HeapLongSlots(capacity);
+        this.ringTimes = offHeap ? new DirectLongSlots(capacity) : new HeapLongSlots(capacity);
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        table.fill(EMPTY);
+    }
+
+    /**
+     * @return true if the key was added at most ttl ago.
+     */
+    public boolean contains(long key, long nowMillis) {
+        lock.lock();
+        try {
+            evictExpired(nowMillis);
+            return key == EMPTY ? containsEmptyKey : indexOf(key) >= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the key with the given time, evicting the oldest key if the window
+     * is full.
+     * 
+     * @return false if the key was already present (its time is not
+     *         refreshed).
+     */
+    public boolean add(long key, long timeMillis) {
+        lock.lock();
+        try {
+            evictExpired(timeMillis);
+            if (key == EMPTY ? containsEmptyKey : indexOf(key) >= 0) {
+                return false;
+            }
+            if (size == capacity) {
+                evictHead();
+                capacityEvictions++;
+            }
+            if (key == EMPTY) {
+                containsEmptyKey = true;
+            } else {
+                int i = slot(key);
+                while (table.get(i) != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table.set(i, key);
+            }
+            int tail = (head + size) % capacity;
+            ringKeys.set(tail, key);
+            ringTimes.set(tail, timeMillis);
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long expiredEvictions() {
+        return expiredEvictions;
+    }
+
+    public long capacityEvictions() {
+        return capacityEvictions;
+    }
+
+    private void evictExpired(long nowMillis) {
+        long cutoff = nowMillis - ttlMillis;
+        while (size > 0 && ringTimes.get(head) < cutoff) {
+            evictHead();
+            expiredEvictions++;
+        }
+    }
+
+    private void evictHead() {
+        remove(ringKeys.get(head));
+        head = (head + 1) % capacity;
+        size--;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private int indexOf(long key) {
+        int i = slot(key);
+        while (true) {
+            long k = table.get(i);
+            if (k == key) {
+                return i;
+            }
+            if (k == EMPTY) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Backward-shift deletion: entries after the removed one move back if
+     * their home slot allows it, so no tombstones are needed.
+     */
+    private void remove(long key) {
+        if (key == EMPTY) {
+            containsEmptyKey = false;
+            return;
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            return;
+        }
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            long k = table.get(j);
+            if (k == EMPTY) {
+                break;
+            }
+            int home = slot(k);
+            boolean movable = j > i ? (home <= i || home > j) : (home <= i && home > j);
+            if (movable) {
+                table.set(i, k);
+                i = j;
+            }
+        }
+        table.set(i, EMPTY);
+    }
+
+    private interface LongSlots {
+
+        long get(int index);
+
+        void set(int index, long value);
+
+        void fill(long value);
+    }
+
+    private static final class HeapLongSlots implements LongSlots {
+
+        private final long[] values;
+
+        HeapLongSlots(int size) {
+            this.values = new long[size];
+        }
+
+        @Override
+        public long get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public void set(int index, long value) {
+            values[index] = value;
+        }
+
+        @Override
+        public void fill(long value) {
+            Arrays.fill(values, value);
+        }
+    }
+
+    private static final class DirectLongSlots implements LongSlots {
+
+        private final ByteBuffer buffer;
+        private final int size;
+
+        DirectLongSlots(int size) {
+            this.buffer = ByteBuffer.allocateDirect(size * Long.BYTES).order(ByteOrder.nativeOrder());
+            this.size = size;
+        }
+
+        @Override
+        public long get(int index) {
+            return buffer.getLong(index << 3);
+        }
+
+        @Override
+        public void set(int index, long value) {
+            buffer.putLong(index << 3, value);
+        }
+
+        @Override
+        public void fill(long value) {
+            for (int i = 0; i < size; i++) {
+                buffer.putLong(i << 3, value);
+            }
+        }
+    }
+}
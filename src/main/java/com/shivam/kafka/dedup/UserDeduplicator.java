@@ -0,0 +1,218 @@
+package com.shivam.kafka.dedup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.shivam.kafka.model.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Skips User records that were already processed (redeliveries after a
+ * rebalance or a retry).
+ * <p>
+ * Processed keys are kept in a {@link LongDedupWindow} bounded by
+ * kafka.dedup.max-entries and kafka.dedup.ttl-ms. The key is User.id, or the
+ * header named by kafka.dedup.header (8-byte big-endian or decimal text).
+ * Each processed key is also written to the compacted topic
+ * "mastery-json-dedup" (key: id, value: processing time), which is read back
+ * at startup so the window survives restarts. The topic is read in the
+ * background, so startup does not wait for the broker; lookups wait until it
+ * has been read (or failed to be). Keys written just before a
+ * crash may not have reached the topic, so a record processed right before
+ * a crash can still be processed again.
+ * </p>
+ * <p>
+ * Off by default: keyed on User.id, a later update of the same user within
+ * the ttl would be dropped as well. Enable it when ids identify a delivery
+ * rather than a user, or set kafka.dedup.header to a per-delivery id set by
+ * the producer.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Service
+public class UserDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDeduplicator.class);
+
+    public static final String TOPIC = "mastery-json-dedup";
+
+    private final boolean enabled;
+    private final String header;
+    private final long ttlMillis;
+    private final LongDedupWindow window;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final Counter hits;
+    private final Counter misses;
+    private final CountDownLatch restoreDone = new CountDownLatch(1);
+
+    public UserDeduplicator(@Value("${kafka.dedup.enabled:false}") boolean enabled,
+            @Value("${kafka.dedup.header:}") String header,
+            @Value("${kafka.dedup.max-entries:1000000}") int maxEntries,
+            @Value("${kafka.dedup.ttl-ms:3600000}") long ttlMillis,
+            @Value("${kafka.dedup.off-heap:false}") boolean offHeap,
+            @Qualifier("basicKafkaTemplate") KafkaTemplate<String, String> kafkaTemplate,
+            @Qualifier("dedupConsumerFactory") ConsumerFactory<String, String> consumerFactory,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.header = header.isBlank() ? null : header;
+        this.ttlMillis = ttlMillis;
+        this.window = enabled ? new LongDedupWindow(maxEntries, ttlMillis, offHeap) : null;
+        this.kafkaTemplate = kafkaTemplate;
+        this.consumerFactory = consumerFactory;
+        this.hits = lookupCounter(registry, "hit");
+        this.misses = lookupCounter(registry, "miss");
+        if (enabled) {
+            Gauge.builder("kafka.dedup.size", window, LongDedupWindow::size)
+                    .description("Keys in the dedup window")
+                    .register(registry);
+            FunctionCounter.builder("kafka.dedup.evictions", window, LongDedupWindow::expiredEvictions)
+                    .description("Keys evicted from the dedup window")
+                    .tag("reason", "expired")
+                    .register(registry);
+            FunctionCounter.builder("kafka.dedup.evictions", window, LongDedupWindow::capacityEvictions)
+                    .description("Keys evicted from the dedup window")
+                    .tag("reason", "capacity")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Dedup key of the record: the configured header or User.id.
+     * 
+     * @return the key, or null if the record has none (it is then never
+     *         deduplicated).
+     */
+    public Long key(ConsumerRecord<?, User> record) {
+        if (header == null) {
+            return record.value() != null ? record.value().getId() : null;
+        }
+        Header value = record.headers().lastHeader(header);
+        if (value == null || value.value() == null) {
+            return null;
+        }
+        byte[] bytes = value.value();
+        if (bytes.length == Long.BYTES) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+        try {
+            return Long.parseLong(new String(bytes, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the key was processed within the window.
+     */
+    public boolean isDuplicate(Long key) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        awaitRestore();
+        boolean duplicate = window.contains(key, System.currentTimeMillis());
+        (duplicate ? hits : misses).increment();
+        return duplicate;
+    }
+
+    /**
+     * Records the key as processed; call after processing succeeded, so a
+     * failed record is still retried.
+     */
+    public void markProcessed(Long key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (window.add(key, now)) {
+            kafkaTemplate.send(TOPIC, Long.toString(key), Long.toString(now));
+        }
+    }
+
+    /**
+     * Starts reloading the keys of the last ttl from the dedup topic, off the
+     * startup path.
+     */
+    @PostConstruct
+    void startRestore() {
+        if (!enabled) {
+            restoreDone.countDown();
+            return;
+        }
+        Thread.ofVirtual().name("dedup-restore").start(() -> {
+            try {
+                restore();
+            } finally {
+                restoreDone.countDown();
+            }
+        });
+    }
+
+    private void awaitRestore() {
+        try {
+            restoreDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void restore() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        long restored = 0;
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer(null, "-dedup-restore")) {
+            List<TopicPartition> partitions = consumer.partitionsFor(TOPIC).stream()
+                    .map(info -> new TopicPartition(TOPIC, info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                return;
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            while (partitions.stream().anyMatch(tp -> consumer.position(tp) < end.get(tp))) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    if (record.key() == null || record.value() == null) {
+                        continue;
+                    }
+                    long processedAt = Long.parseLong(record.value());
+                    if (processedAt >= cutoff && window.add(Long.parseLong(record.key()), processedAt)) {
+                        restored++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not restore the dedup window from '{}', starting with {} keys", TOPIC, restored, e);
+            return;
+        }
+        log.info("Restored {} keys into the dedup window from '{}'", restored, TOPIC);
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("kafka.dedup.lookups")
+                .description("Dedup window lookups: hit = duplicate skipped")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -1,10 +1,16 @@
 package com.shivam.kafka.intermediate;
 
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import com.shivam.kafka.dedup.UserDeduplicator;
+import com.shivam.kafka.metrics.LogSampler;
 import com.shivam.kafka.model.User;
 
 /**
@@ -17,13 +23,71 @@ public class JsonConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(JsonConsumer.class);
 
+    private final LogSampler logSampler;
+    private final UserDeduplicator deduplicator;
+
+    public JsonConsumer(LogSampler logSampler, UserDeduplicator deduplicator) {
+        this.logSampler = logSampler;
+        this.deduplicator = deduplicator;
+    }
+
     /**
      * Consumes User objects.
      * We specify the containerFactory to use our custom JSON-configured factory.
+     * Only started when batch mode is disabled (kafka.batch.enabled=false).
+     * Users that were already processed (redeliveries) are skipped, see
+     * {@link UserDeduplicator}.
+     */
+    @KafkaListener(topics = "mastery-json-topic", groupId = "json-group", containerFactory = "userKafkaListenerContainerFactory", autoStartup = "#{!${kafka.batch.enabled:false}}")
+    public void consumeUser(ConsumerRecord<String, User> record) {
+        User user = record.value();
+        if (logSampler.sample()) {
+            log.info("Received User JSON: {}", user);
+        }
+        processOnce(record);
+    }
+
+    /**
+     * Batch variant of {@link #consumeUser(ConsumerRecord)}, started when
+     * kafka.batch.enabled=true.
+     * <p>
+     * Records that could not be deserialized arrive with a null value (see
+     * userBatchListenerContainerFactory) and are skipped. Processing failures are
+     * reported with the failed index so the rest of the batch is not replayed.
+     * </p>
      */
-    @KafkaListener(topics = "mastery-json-topic", groupId = "json-group", containerFactory = "userKafkaListenerContainerFactory")
-    public void consumeUser(User user) {
-        log.info("Received User JSON: {}", user);
+    @KafkaListener(topics = "mastery-json-topic", groupId = "json-group", containerFactory = "userBatchListenerContainerFactory", autoStartup = "${kafka.batch.enabled:false}")
+    public void consumeUserBatch(List<ConsumerRecord<String, User>> records) {
+        log.info("Received batch of {} User records", records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, User> record = records.get(i);
+            if (record.value() == null) {
+                log.warn("Skipping undeserializable record at {}-{}@{}", record.topic(), record.partition(),
+                        record.offset());
+                continue;
+            }
+            try {
+                processOnce(record);
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException(
+                        "Failed to process User at offset " + record.offset(), e, i);
+            }
+        }
+    }
+
+    private void processOnce(ConsumerRecord<String, User> record) {
+        Long key = deduplicator.key(record);
+        if (deduplicator.isDuplicate(key)) {
+            log.debug("Skipping already processed User {} at {}-{}@{}", key, record.topic(), record.partition(),
+                    record.offset());
+            return;
+        }
+        process(record.value());
+        deduplicator.markProcessed(key);
+    }
+
+    private void process(User user) {
+        log.debug("Processing user: {}", user);
         // Process user...
     }
 }
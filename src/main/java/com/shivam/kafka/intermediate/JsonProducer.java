@@ -1,16 +1,29 @@
 package com.shivam.kafka.intermediate;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import com.shivam.kafka.config.AcksPolicy;
+import com.shivam.kafka.config.AcksTemplates;
+import com.shivam.kafka.metrics.KafkaMetrics;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.SendReceipt;
 import com.shivam.kafka.model.User;
+import com.shivam.kafka.spool.ProducerSpool;
+
+import jakarta.annotation.PreDestroy;
 
 /**
  * Demonstrates sending JSON objects to Kafka.
@@ -22,22 +35,79 @@ public class JsonProducer {
 
     private static final Logger log = LoggerFactory.getLogger(JsonProducer.class);
 
+    private static final String TOPIC = "mastery-json-topic";
+
     private final KafkaTemplate<String, User> userKafkaTemplate;
+    private final AcksTemplates<User> acksTemplates;
+    private final KafkaMetrics metrics;
+    private final LogSampler logSampler;
+
+    // Keeps sends while the broker is unreachable (null when disabled)
+    private final ProducerSpool spool;
+
+    public JsonProducer(KafkaTemplate<String, User> userKafkaTemplate, KafkaMetrics metrics, LogSampler logSampler) {
+        this(userKafkaTemplate, metrics, logSampler, null);
+    }
 
     @Autowired
-    public JsonProducer(@Qualifier("userKafkaTemplate") KafkaTemplate<String, User> userKafkaTemplate) {
+    public JsonProducer(@Qualifier("userKafkaTemplate") KafkaTemplate<String, User> userKafkaTemplate,
+            KafkaMetrics metrics, LogSampler logSampler, ObjectProvider<ProducerSpool> spool) {
         this.userKafkaTemplate = userKafkaTemplate;
+        this.acksTemplates = new AcksTemplates<>(userKafkaTemplate);
+        this.metrics = metrics;
+        this.logSampler = logSampler;
+        this.spool = spool != null ? spool.getIfAvailable() : null;
     }
 
-    public void sendUser(User user) {
-        log.info("Sending User JSON: {}", user);
+    /**
+     * Sends a User object to the "mastery-json-topic".
+     * 
+     * @param user The user to send.
+     * @return a future that completes when the broker acknowledges the record,
+     *         or when the record is spooled while the broker is unreachable.
+     */
+    public CompletableFuture<SendResult<String, User>> sendUser(User user) {
+        if (logSampler.sample()) {
+            log.info("Sending User JSON: {}", user);
+        }
+        Supplier<CompletableFuture<SendResult<String, User>>> send = () -> metrics.timeSend(TOPIC,
+                () -> userKafkaTemplate.send(toMessage(user)));
+        return spool != null ? spool.send(TOPIC, key(user), user, send) : send.get();
+    }
+
+    /**
+     * Sends a User object and reports where and how fast the broker acknowledged
+     * it.
+     * 
+     * @param user The user to send.
+     * @param acks The acknowledgement policy to send with.
+     * @return a future completed with partition, offset and latency once the
+     *         broker has acknowledged the record.
+     */
+    public CompletableFuture<SendReceipt> sendUserAsync(User user, AcksPolicy acks) {
+        long start = System.nanoTime();
+        return metrics.timeSend(TOPIC, () -> acksTemplates.get(acks).send(toMessage(user)))
+                .thenApply(result -> SendReceipt.of(result.getRecordMetadata(), acks.acks(), start));
+    }
 
-        // We can build a Spring Message to include headers if needed
-        Message<User> message = MessageBuilder
+    private Message<User> toMessage(User user) {
+        // Keyed by id so all updates of a user land on one partition in order
+        // (the materialized view in UserViewService relies on this), except ids
+        // HotKeyAwarePartitioner finds hot, which are spread unless listed in
+        // kafka.partitioner.hot-key.ordered-keys
+        return MessageBuilder
                 .withPayload(user)
-                .setHeader(KafkaHeaders.TOPIC, "mastery-json-topic")
+                .setHeader(KafkaHeaders.TOPIC, TOPIC)
+                .setHeader(KafkaHeaders.KEY, key(user))
                 .build();
+    }
+
+    private static String key(User user) {
+        return user.getId() != null ? user.getId().toString() : null;
+    }
 
-        userKafkaTemplate.send(message);
+    @PreDestroy
+    void close() {
+        acksTemplates.close();
     }
 }
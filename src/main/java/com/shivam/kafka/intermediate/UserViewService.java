@@ -0,0 +1,227 @@
+package com.shivam.kafka.intermediate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.shivam.kafka.model.User;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Materialized view of the latest User per id, built from
+ * "mastery-json-topic" and queried from memory.
+ * <p>
+ * The view subscribes to the topic in a consumer group of its own (a new
+ * group id per instance, so every instance gets every partition; nothing is
+ * committed) and applies each record as an upsert, or as a delete when the
+ * value is null (tombstone, keyed by id). Every
+ * kafka.users.view.snapshot-interval-ms, and on shutdown, the view and the
+ * next offset of each partition are written to a memory-mapped snapshot file
+ * (see UserViewSnapshot). On restart the snapshot is loaded and only the
+ * records after its offsets are replayed, instead of the whole topic.
+ * </p>
+ * <p>
+ * Lookups are eventually consistent: a user sent a moment ago may not be
+ * visible yet, and until the replay has caught up after a restart the view
+ * can be behind. Partitions added to the topic while running are picked up
+ * at the next metadata refresh. Starting does not wait for the broker: the
+ * container subscribes and keeps retrying in the background, and each
+ * assigned partition is positioned from the snapshot when it arrives.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Service
+@ConditionalOnProperty(name = "kafka.users.view.enabled", havingValue = "true", matchIfMissing = true)
+public class UserViewService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserViewService.class);
+
+    private static final String TOPIC = "mastery-json-topic";
+
+    private final ConsumerFactory<String, User> consumerFactory;
+    private final Path snapshotPath;
+    private final ConcurrentSkipListMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Long> nextOffsets = new ConcurrentHashMap<>();
+    private volatile KafkaMessageListenerContainer<String, User> container;
+
+    public UserViewService(@Qualifier("userViewConsumerFactory") ConsumerFactory<String, User> consumerFactory,
+            @Value("${kafka.users.view.snapshot-path:data/user-view.snapshot}") String snapshotPath,
+            MeterRegistry registry) {
+        this.consumerFactory = consumerFactory;
+        this.snapshotPath = Paths.get(snapshotPath);
+        Gauge.builder("kafka.users.view.size", users, Map::size)
+                .description("Users in the materialized view")
+                .register(registry);
+    }
+
+    /**
+     * @param id The user id.
+     * @return the latest version of the user, if it was seen.
+     */
+    public Optional<User> get(long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    /**
+     * @param fromId Lowest id, inclusive.
+     * @param toId   Highest id, inclusive.
+     * @param limit  Maximum number of users to return.
+     * @return users ordered by id.
+     */
+    public List<User> range(long fromId, long toId, int limit) {
+        List<User> result = new ArrayList<>(Math.min(limit, 256));
+        for (User user : users.subMap(fromId, true, toId, true).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(user);
+        }
+        return result;
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (container != null) {
+            return;
+        }
+        loadSnapshot();
+        ContainerProperties properties = new ContainerProperties(TOPIC);
+        properties.setGroupId("user-view-" + UUID.randomUUID());
+        // Progress lives in the snapshot file; MANUAL without acknowledging never commits
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setMessageListener(new ViewListener());
+        container = new KafkaMessageListenerContainer<>(consumerFactory, properties);
+        container.setBeanName("userViewContainer");
+        container.start();
+        log.info("User view started with {} users, replaying from {}", users.size(), nextOffsets);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (container == null) {
+            return;
+        }
+        container.stop();
+        container = null;
+        snapshot();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container != null;
+    }
+
+    /**
+     * Writes the current view to the snapshot file. Synchronized with stop(),
+     * which writes the final snapshot: both go through the same temp file.
+     */
+    @Scheduled(fixedDelayString = "${kafka.users.view.snapshot-interval-ms:60000}",
+            initialDelayString = "${kafka.users.view.snapshot-interval-ms:60000}")
+    public synchronized void snapshot() {
+        // Offsets first: the users copied afterwards are at least as new, and
+        // replaying from older offsets only re-applies the same updates
+        Map<Integer, Long> offsets = new HashMap<>(nextOffsets);
+        if (offsets.isEmpty()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            UserViewSnapshot.write(snapshotPath, offsets, users.values());
+            log.debug("User view snapshot of {} users written in {} ms", users.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Could not write user view snapshot {}", snapshotPath, e);
+        }
+    }
+
+    private void apply(ConsumerRecord<String, User> record) {
+        User user = record.value();
+        if (user != null) {
+            if (user.getId() != null) {
+                users.put(user.getId(), user);
+            }
+        } else if (record.key() != null) {
+            try {
+                users.remove(Long.parseLong(record.key()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring tombstone with non-numeric key {}", record.key());
+            }
+        }
+        nextOffsets.put(record.partition(), record.offset() + 1);
+    }
+
+    /**
+     * Applies the records and positions each assigned partition after the
+     * last record applied, or at the beginning if none was.
+     */
+    private final class ViewListener implements MessageListener<String, User>, ConsumerSeekAware {
+
+        @Override
+        public void onMessage(ConsumerRecord<String, User> record) {
+            apply(record);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+            for (TopicPartition partition : assignments.keySet()) {
+                Long offset = nextOffsets.get(partition.partition());
+                if (offset != null) {
+                    callback.seek(partition.topic(), partition.partition(), offset);
+                } else {
+                    callback.seekToBeginning(partition.topic(), partition.partition());
+                }
+            }
+        }
+    }
+
+    private void loadSnapshot() {
+        try {
+            long start = System.nanoTime();
+            UserViewSnapshot snapshot = UserViewSnapshot.read(snapshotPath);
+            if (snapshot == null) {
+                return;
+            }
+            for (User user : snapshot.users()) {
+                users.put(user.getId(), user);
+            }
+            nextOffsets.putAll(snapshot.offsets());
+            log.info("Loaded user view snapshot of {} users in {} ms", users.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable user view snapshot {}, rebuilding from the topic", snapshotPath, e);
+            users.clear();
+            nextOffsets.clear();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.shivam.kafka.intermediate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shivam.kafka.model.User;
+import com.shivam.kafka.serialization.UserBinaryDeserializer;
+import com.shivam.kafka.serialization.UserBinarySerializer;
+
+/**
+ * Memory-mapped snapshot file of the materialized User view.
+ * <p>
+ * Layout: magic, version, partition count, (partition, next offset) pairs,
+ * user count, then each user as a length-prefixed {@link UserBinarySerializer}
+ * record. A snapshot is written to a temporary file and atomically moved over
+ * the previous one, so a crash while writing leaves the old snapshot intact.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+final class UserViewSnapshot {
+
+    private static final int MAGIC = 0x55564E31; // "UVN1"
+    private static final int VERSION = 1;
+    private static final String TOPIC = "mastery-json-topic";
+
+    private final Map<Integer, Long> offsets;
+    private final List<User> users;
+
+    private UserViewSnapshot(Map<Integer, Long> offsets, List<User> users) {
+        this.offsets = offsets;
+        this.users = users;
+    }
+
+    /**
+     * @return next offset to read per partition.
+     */
+    Map<Integer, Long> offsets() {
+        return offsets;
+    }
+
+    List<User> users() {
+        return users;
+    }
+
+    /**
+     * Writes the view. The offsets must have been captured before iterating the
+     * users, so replaying from them can only re-apply newer updates.
+     */
+    static void write(Path path, Map<Integer, Long> offsets, Collection<User> users) throws IOException {
+        UserBinarySerializer serializer = new UserBinarySerializer();
+        List<byte[]> encoded = new ArrayList<>(users.size());
+        long size = 4 * Integer.BYTES + (long) offsets.size() * (Integer.BYTES + Long.BYTES);
+        for (User user : users) {
+            byte[] bytes = serializer.serialize(TOPIC, user);
+            encoded.add(bytes);
+            size += Integer.BYTES + bytes.length;
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(offsets.size());
+            offsets.forEach((partition, offset) -> buffer.putInt(partition).putLong(offset));
+            buffer.putInt(encoded.size());
+            for (byte[] bytes : encoded) {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the snapshot, or null if there is none.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    static UserViewSnapshot read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        UserBinaryDeserializer deserializer = new UserBinaryDeserializer();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a user view snapshot: " + path);
+            }
+            int partitions = buffer.getInt();
+            Map<Integer, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitions; i++) {
+                offsets.put(buffer.getInt(), buffer.getLong());
+            }
+            int count = buffer.getInt();
+            List<User> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                users.add(deserializer.deserialize(TOPIC, bytes));
+            }
+            return new UserViewSnapshot(offsets, users);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt user view snapshot: " + path, e);
+        }
+    }
+}
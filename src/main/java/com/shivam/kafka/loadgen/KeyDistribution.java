@@ -0,0 +1,70 @@
+package com.shivam.kafka.loadgen;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks record keys in [0, keys) for the load generator.
+ * <p>
+ * "uniform" spreads the load evenly. "zipf" skews it: key k is picked with a
+ * probability proportional to 1 / (k + 1)^exponent, so with exponent 1 and
+ * 1000 keys the hottest key gets about 13% of the records. A skewed key
+ * distribution concentrates load on a few partitions, as hot accounts or
+ * tenants do in production.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public final class KeyDistribution {
+
+    private final int keys;
+    private final double[] cumulative;
+
+    private KeyDistribution(int keys, double[] cumulative) {
+        this.keys = keys;
+        this.cumulative = cumulative;
+    }
+
+    public static KeyDistribution uniform(int keys) {
+        return new KeyDistribution(keys, null);
+    }
+
+    public static KeyDistribution zipf(int keys, double exponent) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < keys; k++) {
+            cumulative[k] /= sum;
+        }
+        return new KeyDistribution(keys, cumulative);
+    }
+
+    /**
+     * @param name     "uniform" or "zipf".
+     * @param keys     Number of distinct keys.
+     * @param exponent Skew of the zipf distribution (0 is uniform).
+     */
+    public static KeyDistribution of(String name, int keys, double exponent) {
+        if (keys <= 0) {
+            throw new IllegalArgumentException("keys must be positive: " + keys);
+        }
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "uniform" -> uniform(keys);
+            case "zipf" -> zipf(keys, exponent);
+            default -> throw new IllegalArgumentException("Unknown key distribution: " + name);
+        };
+    }
+
+    public int next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (cumulative == null) {
+            return random.nextInt(keys);
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, keys - 1);
+    }
+}
@@ -0,0 +1,341 @@
+package com.shivam.kafka.loadgen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.shivam.kafka.advanced.AdvancedProducer;
+import com.shivam.kafka.beginner.BasicProducer;
+import com.shivam.kafka.intermediate.JsonProducer;
+import com.shivam.kafka.metrics.EndToEndLatency;
+import com.shivam.kafka.model.User;
+
+/**
+ * Drives BasicProducer, JsonProducer and AdvancedProducer with a synthetic
+ * load and reports throughput and latency (Spring profile "loadgen").
+ * <p>
+ * With kafka.loadgen.rate &gt; 0 each producer sends open-loop at that rate:
+ * sends are scheduled at fixed intervals whether or not earlier ones have
+ * completed, and ack latency is measured from the scheduled time, so a stall
+ * shows up in the percentiles instead of silently lowering the rate. With
+ * rate=0 each producer sends as fast as it can with at most
+ * kafka.loadgen.max-in-flight unacknowledged sends.
+ * </p>
+ * <p>
+ * Keys follow kafka.loadgen.key-distribution (see {@link KeyDistribution});
+ * for JsonProducer the key is the User id. The consumers record
+ * produce-to-consume latency from the send timestamp header (see
+ * EndToEndLatency). Sends scheduled during the warm-up are not counted and
+ * their latency is not recorded, even when their ack arrives later. At
+ * the end the report is logged, and with kafka.loadgen.exit=true the
+ * application exits.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Component
+@Profile("loadgen")
+public class LoadGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final String PAYLOAD_CHARS = "0123456789abcdef";
+    private static final int PAYLOADS = 64;
+    private static final Duration ASSIGNMENT_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration DRAIN_QUIET_PERIOD = Duration.ofSeconds(2);
+
+    private final ApplicationContext context;
+    private final BasicProducer basicProducer;
+    private final JsonProducer jsonProducer;
+    private final AdvancedProducer advancedProducer;
+    private final EndToEndLatency endToEndLatency;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Value("${kafka.loadgen.producers:basic,json,advanced}")
+    private List<String> producers;
+
+    @Value("${kafka.loadgen.rate:1000}")
+    private int rate;
+
+    @Value("${kafka.loadgen.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${kafka.loadgen.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${kafka.loadgen.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${kafka.loadgen.keys:1000}")
+    private int keys;
+
+    @Value("${kafka.loadgen.key-distribution:uniform}")
+    private String keyDistribution;
+
+    @Value("${kafka.loadgen.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${kafka.loadgen.message-size:256}")
+    private int messageSize;
+
+    @Value("${kafka.loadgen.drain-timeout-seconds:30}")
+    private int drainTimeoutSeconds;
+
+    @Value("${kafka.loadgen.exit:true}")
+    private boolean exit;
+
+    public LoadGenerator(ApplicationContext context, BasicProducer basicProducer, JsonProducer jsonProducer,
+            AdvancedProducer advancedProducer, EndToEndLatency endToEndLatency,
+            KafkaListenerEndpointRegistry listenerRegistry) {
+        this.context = context;
+        this.basicProducer = basicProducer;
+        this.jsonProducer = jsonProducer;
+        this.advancedProducer = advancedProducer;
+        this.endToEndLatency = endToEndLatency;
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        KeyDistribution distribution = KeyDistribution.of(keyDistribution, keys, zipfExponent);
+        List<Driver> drivers = new ArrayList<>();
+        for (String producer : producers) {
+            drivers.add(driver(producer.trim().toLowerCase(Locale.ROOT), distribution));
+        }
+        awaitAssignment();
+
+        log.info("Load generation started: {} at {} records/s each (0 = max), {}s after {}s warm-up", producers,
+                rate, durationSeconds, warmupSeconds);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Thread> threads = new ArrayList<>();
+        for (Driver driver : drivers) {
+            threads.add(Thread.ofPlatform().name("loadgen-" + driver.name)
+                    .start(() -> driver.run(start, measureFrom, end)));
+        }
+        parkUntil(measureFrom);
+        endToEndLatency.reset();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        drivers.forEach(Driver::awaitAcks);
+        awaitDrain(drivers);
+
+        log.info("Load generation finished{}", report(drivers));
+        if (exit) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private Driver driver(String producer, KeyDistribution distribution) {
+        String[] payloads = new String[PAYLOADS];
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = randomPayload(messageSize);
+        }
+        return switch (producer) {
+            case "basic" -> new Driver("basic", "mastery-beginner-topic", distribution,
+                    key -> basicProducer.sendMessage("key-" + key, payloads[key % PAYLOADS]));
+            case "json" -> new Driver("json", "mastery-json-topic", distribution,
+                    key -> jsonProducer.sendUser(new User((long) key, "user-" + key,
+                            "user-" + key + "@example.com")));
+            case "advanced" -> new Driver("advanced", "mastery-advanced-topic", distribution,
+                    key -> advancedProducer.sendMessageAsync("key-" + key, payloads[key % PAYLOADS]));
+            default -> throw new IllegalArgumentException("Unknown producer: " + producer);
+        };
+    }
+
+    private static void parkUntil(long nanoTime) {
+        for (long wait = nanoTime - System.nanoTime(); wait > 0; wait = nanoTime - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * Hex characters only, so a payload never contains the words that make the
+     * advanced producer and consumer fail on purpose.
+     */
+    private static String randomPayload(int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder payload = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            payload.append(PAYLOAD_CHARS.charAt(random.nextInt(PAYLOAD_CHARS.length())));
+        }
+        return payload.toString();
+    }
+
+    /**
+     * Records sent before the listeners are assigned would be skipped by
+     * consumers that start at the latest offset.
+     */
+    private void awaitAssignment() {
+        long deadline = System.nanoTime() + ASSIGNMENT_TIMEOUT.toNanos();
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            while (container.isRunning()
+                    && (container.getAssignedPartitions() == null || container.getAssignedPartitions().isEmpty())
+                    && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+
+    /**
+     * Waits until the consumers have seen no new record for a moment (or the
+     * drain timeout expires).
+     */
+    private void awaitDrain(List<Driver> drivers) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+        long consumed = -1;
+        while (System.nanoTime() < deadline) {
+            long now = 0;
+            for (Driver driver : drivers) {
+                now += endToEndLatency.histogram(driver.topic).getTotalCount();
+            }
+            if (now == consumed) {
+                return;
+            }
+            consumed = now;
+            LockSupport.parkNanos(DRAIN_QUIET_PERIOD.toNanos());
+        }
+        log.warn("Consumers still receiving records after {}s, the report is partial", drainTimeoutSeconds);
+    }
+
+    private String report(List<Driver> drivers) {
+        double seconds = durationSeconds;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%n%s, %ds measured, %d keys (%s)%n",
+                rate > 0 ? "Open loop at " + rate + " records/s per producer"
+                        : "Closed loop, max " + maxInFlight + " in flight per producer",
+                durationSeconds, keys, keyDistribution));
+        report.append(String.format("%-10s %10s %10s %8s %10s %9s %9s %9s %9s%n", "producer", "sent", "acked",
+                "failed", "acked/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Driver driver : drivers) {
+            Histogram acks = driver.ackLatency();
+            report.append(String.format("%-10s %10d %10d %8d %10.0f %s%n", driver.name, driver.sent.get(),
+                    driver.acked.get(), driver.failed.get(), driver.acked.get() / seconds,
+                    percentiles(acks)));
+        }
+        report.append(String.format("%-24s %10s %10s %9s %9s %9s %9s%n", "topic (produce-to-consume)",
+                "consumed", "/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Driver driver : drivers) {
+            Histogram consumed = endToEndLatency.histogram(driver.topic);
+            report.append(String.format("%-24s %10d %10.0f %s%n", driver.topic, consumed.getTotalCount(),
+                    consumed.getTotalCount() / seconds, percentiles(consumed)));
+        }
+        return report.toString();
+    }
+
+    private static String percentiles(Histogram micros) {
+        if (micros.getTotalCount() == 0) {
+            return String.format("%9s %9s %9s %9s", "-", "-", "-", "-");
+        }
+        return String.format("%9.2f %9.2f %9.2f %9.2f", micros.getValueAtPercentile(50) / 1000.0,
+                micros.getValueAtPercentile(99) / 1000.0, micros.getValueAtPercentile(99.9) / 1000.0,
+                micros.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * Sends for one producer and records its ack latency. Only sends scheduled
+     * in the measured window are counted, so late acks of warm-up sends
+     * cannot inflate acked or the percentiles.
+     */
+    private final class Driver {
+
+        private final String name;
+        private final String topic;
+        private final IntFunction<CompletableFuture<?>> send;
+        private final KeyDistribution distribution;
+        private final Recorder recorder = new Recorder(3);
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong acked = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Histogram total = new Histogram(3);
+
+        Driver(String name, String topic, KeyDistribution distribution, IntFunction<CompletableFuture<?>> send) {
+            this.name = name;
+            this.topic = topic;
+            this.distribution = distribution;
+            this.send = send;
+        }
+
+        void run(long start, long measureFrom, long end) {
+            long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+            for (long i = 0;; i++) {
+                long scheduled;
+                if (rate > 0) {
+                    // Open loop: the schedule does not wait for acks
+                    scheduled = start + i * interval;
+                    if (scheduled >= end) {
+                        return;
+                    }
+                    parkUntil(scheduled);
+                } else {
+                    // Closed loop: wait for an ack once max-in-flight sends are outstanding
+                    inFlight.acquireUninterruptibly();
+                    scheduled = System.nanoTime();
+                    if (scheduled >= end) {
+                        inFlight.release();
+                        return;
+                    }
+                }
+                boolean measured = scheduled >= measureFrom;
+                if (measured) {
+                    sent.incrementAndGet();
+                }
+                CompletableFuture<?> future;
+                try {
+                    future = send.apply(distribution.next());
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                future.whenComplete((result, ex) -> {
+                    if (measured) {
+                        recorder.recordValue(Math.max(0, (System.nanoTime() - scheduled) / 1_000));
+                        (ex == null ? acked : failed).incrementAndGet();
+                    }
+                    if (rate <= 0) {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        /**
+         * Waits up to the drain timeout for the measured sends to complete.
+         */
+        void awaitAcks() {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+            while (acked.get() + failed.get() < sent.get() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+
+        synchronized Histogram ackLatency() {
+            total.add(recorder.getIntervalHistogram());
+            return total.copy();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.shivam.kafka.metrics;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Produce-to-consume latency per topic, in microseconds.
+ * <p>
+ * With kafka.latency.end-to-end.enabled=true, producers stamp each record with
+ * its send time in the {@value #SEND_TIMESTAMP_HEADER} header (see
+ * SendTimestampInterceptor) and the listener containers record the time until
+ * the record reaches the listener here. Values go into HdrHistogram recorders,
+ * which are wait-free for the consumer threads. The latency is measured across
+ * processes with the wall clock, so it is only accurate between hosts with
+ * synchronized clocks.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+public class EndToEndLatency {
+
+    public static final String SEND_TIMESTAMP_HEADER = "x-send-ts";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> totals = new ConcurrentHashMap<>();
+    // Records sent before the last reset are ignored
+    private volatile long sentFromMicros;
+
+    /**
+     * @return the current wall-clock time in microseconds since the epoch.
+     */
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    /**
+     * Records the latency of a stamped record; records without the header are
+     * ignored.
+     */
+    public void record(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(SEND_TIMESTAMP_HEADER);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return;
+        }
+        long sentAt = ByteBuffer.wrap(header.value()).getLong();
+        if (sentAt < sentFromMicros) {
+            return;
+        }
+        long latency = nowMicros() - sentAt;
+        recorders.computeIfAbsent(record.topic(), topic -> new Recorder(SIGNIFICANT_DIGITS))
+                .recordValue(Math.max(0, latency));
+    }
+
+    /**
+     * @return the latencies recorded for the topic since the last reset (a
+     *         copy), or an empty histogram.
+     */
+    public synchronized Histogram histogram(String topic) {
+        Histogram total = totals.computeIfAbsent(topic, t -> new Histogram(SIGNIFICANT_DIGITS));
+        Recorder recorder = recorders.get(topic);
+        if (recorder != null) {
+            total.add(recorder.getIntervalHistogram());
+        }
+        return total.copy();
+    }
+
+    /**
+     * Discards everything recorded so far, e.g. at the end of a warm-up, and
+     * ignores records sent before now that are consumed later.
+     */
+    public synchronized void reset() {
+        sentFromMicros = nowMicros();
+        recorders.values().forEach(Recorder::reset);
+        totals.clear();
+    }
+}
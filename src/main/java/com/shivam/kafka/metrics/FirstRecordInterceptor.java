@@ -0,0 +1,54 @@
+package com.shivam.kafka.metrics;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+
+/**
+ * Tells the {@link StartupReport} passed in the consumer configs under
+ * {@value #REPORT_CONFIG} when the first non-empty poll returns, to measure
+ * time to first consumed record. After that, a poll costs one volatile read.
+ * <p>
+ * Configured through interceptor.classes by KafkaConfig on every consumer
+ * factory.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+public class FirstRecordInterceptor implements ConsumerInterceptor<Object, Object> {
+
+    public static final String REPORT_CONFIG = "startup.report";
+
+    private StartupReport report;
+    private volatile boolean seen;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        if (!(configs.get(REPORT_CONFIG) instanceof StartupReport startupReport)) {
+            throw new ConfigException(REPORT_CONFIG, configs.get(REPORT_CONFIG),
+                    "FirstRecordInterceptor needs a StartupReport");
+        }
+        this.report = startupReport;
+    }
+
+    @Override
+    public ConsumerRecords<Object, Object> onConsume(ConsumerRecords<Object, Object> records) {
+        if (!seen && !records.isEmpty()) {
+            seen = true;
+            report.recordsConsumed();
+        }
+        return records;
+    }
+
+    @Override
+    public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
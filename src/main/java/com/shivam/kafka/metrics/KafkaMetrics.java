@@ -0,0 +1,187 @@
+package com.shivam.kafka.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Application-level Kafka meters, on top of the client metrics (lag, error
+ * rates, request latency...) bound by the Micrometer producer and consumer
+ * listeners in KafkaConfig and the spring.kafka.listener timers of the
+ * listener containers.
+ * <ul>
+ * <li>kafka.producer.send: send-to-ack latency per topic and result, with a
+ * percentile histogram.</li>
+ * <li>kafka.producer.in.flight: sends waiting for their ack, per topic.</li>
+ * <li>kafka.consumer.batch.size: records per batch delivered to batch
+ * listeners, per topic.</li>
+ * <li>kafka.producer.transactions: committed and aborted transactions of the
+ * advanced producer (not DLT redrives or retry-topic forwards, which share
+ * its template).</li>
+ * <li>kafka.producer.instances: live producers per producer factory.</li>
+ * </ul>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+public class KafkaMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, SendMeters> sendMeters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> batchSizes = new ConcurrentHashMap<>();
+    private final Counter transactionsCommitted;
+    private final Counter transactionsAborted;
+
+    public KafkaMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.transactionsCommitted = transactionCounter("commit");
+        this.transactionsAborted = transactionCounter("abort");
+    }
+
+    /**
+     * Times a send from the call until the broker ack (or failure).
+     * 
+     * @param topic Topic the record is sent to.
+     * @param send  Starts the send.
+     * @return the send future, unchanged.
+     */
+    public <T> CompletableFuture<T> timeSend(String topic, Supplier<CompletableFuture<T>> send) {
+        SendMeters meters = sendMeters.computeIfAbsent(topic, this::sendMeters);
+        long start = System.nanoTime();
+        meters.inFlight().incrementAndGet();
+        CompletableFuture<T> future;
+        try {
+            future = send.get();
+        } catch (RuntimeException e) {
+            meters.inFlight().decrementAndGet();
+            meters.failure().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        future.whenComplete((result, ex) -> {
+            meters.inFlight().decrementAndGet();
+            (ex == null ? meters.success() : meters.failure()).record(System.nanoTime() - start,
+                    TimeUnit.NANOSECONDS);
+        });
+        return future;
+    }
+
+    /**
+     * Records the size of a batch handed to a batch listener, per topic.
+     */
+    public void recordBatch(ConsumerRecords<?, ?> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> perTopic = new HashMap<>();
+        for (TopicPartition partition : records.partitions()) {
+            perTopic.merge(partition.topic(), records.records(partition).size(), Integer::sum);
+        }
+        perTopic.forEach((topic, size) -> batchSizes.computeIfAbsent(topic, this::batchSize).record(size));
+    }
+
+    /**
+     * Counts the live producers of a factory as kafka.producer.instances. Each
+     * producer has its own I/O thread, buffer memory and broker connections.
+     * 
+     * @param factory         Name of the factory, used as the "factory" tag.
+     * @param producerFactory The factory to track.
+     */
+    public <K, V> void countProducers(String factory, ProducerFactory<K, V> producerFactory) {
+        AtomicInteger live = new AtomicInteger();
+        producerFactory.addListener(new ProducerFactory.Listener<>() {
+
+            @Override
+            public void producerAdded(String id, Producer<K, V> producer) {
+                live.incrementAndGet();
+            }
+
+            @Override
+            public void producerRemoved(String id, Producer<K, V> producer) {
+                live.decrementAndGet();
+            }
+        });
+        Gauge.builder("kafka.producer.instances", live, AtomicInteger::get)
+                .description("Live producers created by a producer factory")
+                .tag("factory", factory)
+                .register(registry);
+    }
+
+    /**
+     * Runs a transaction of the advanced producer and counts it as committed,
+     * or as aborted if it throws.
+     * 
+     * @param transaction Runs the transaction, e.g. executeInTransaction.
+     * @return the result of the transaction.
+     */
+    public <T> T countTransaction(Supplier<T> transaction) {
+        T result;
+        try {
+            result = transaction.get();
+        } catch (RuntimeException | Error e) {
+            transactionsAborted.increment();
+            throw e;
+        }
+        transactionsCommitted.increment();
+        return result;
+    }
+
+    public void transactionCommitted() {
+        transactionsCommitted.increment();
+    }
+
+    public void transactionAborted() {
+        transactionsAborted.increment();
+    }
+
+    private SendMeters sendMeters(String topic) {
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("kafka.producer.in.flight", inFlight, AtomicInteger::get)
+                .description("Sends waiting for a broker ack")
+                .tag("topic", topic)
+                .register(registry);
+        return new SendMeters(sendTimer(topic, "success"), sendTimer(topic, "failure"), inFlight);
+    }
+
+    private Timer sendTimer(String topic, String result) {
+        return Timer.builder("kafka.producer.send")
+                .description("Latency from send to broker ack")
+                .tag("topic", topic)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary batchSize(String topic) {
+        return DistributionSummary.builder("kafka.consumer.batch.size")
+                .description("Records per batch delivered to batch listeners")
+                .tag("topic", topic)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter transactionCounter(String outcome) {
+        return Counter.builder("kafka.producer.transactions")
+                .description("Transactions of the advanced producer")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record SendMeters(Timer success, Timer failure, AtomicInteger inFlight) {
+    }
+}
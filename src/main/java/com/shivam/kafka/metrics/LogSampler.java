@@ -0,0 +1,33 @@
+package com.shivam.kafka.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a per-message log line is written, so that logging every
+ * send and receive does not cost throughput.
+ * <p>
+ * About one call in kafka.logging.sample-every returns true (1 logs every
+ * message). Sampling is random rather than a shared counter, so busy threads
+ * do not contend on it. Counts and latencies are available as metrics
+ * instead (see {@link KafkaMetrics}).
+ * </p>
+ * Usage: if (logSampler.sample()) { log.info(...); }
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+public class LogSampler {
+
+    private final int every;
+
+    public LogSampler(@Value("${kafka.logging.sample-every:1000}") int every) {
+        this.every = every;
+    }
+
+    public boolean sample() {
+        return every <= 1 || ThreadLocalRandom.current().nextInt(every) == 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.shivam.kafka.metrics;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+/**
+ * Stamps each record with its send time (epoch microseconds, 8 bytes) in the
+ * {@value EndToEndLatency#SEND_TIMESTAMP_HEADER} header, unless it already
+ * has one. Records republished to retry topics or the DLT keep their original
+ * stamp.
+ * <p>
+ * Configured through interceptor.classes by KafkaConfig when
+ * kafka.latency.end-to-end.enabled=true.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public class SendTimestampInterceptor implements ProducerInterceptor<Object, Object> {
+
+    @Override
+    public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+        if (record.headers().lastHeader(EndToEndLatency.SEND_TIMESTAMP_HEADER) == null) {
+            record.headers().add(EndToEndLatency.SEND_TIMESTAMP_HEADER,
+                    ByteBuffer.allocate(Long.BYTES).putLong(EndToEndLatency.nowMicros()).array());
+        }
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
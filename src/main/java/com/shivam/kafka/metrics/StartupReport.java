@@ -0,0 +1,96 @@
+package com.shivam.kafka.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Cold-start figures, to compare the JVM and the native image.
+ * <ul>
+ * <li>app.startup.first.record: time from process start until a listener
+ * container first receives records (see FirstRecordInterceptor).</li>
+ * <li>process.memory.rss: resident set size of the process, read from
+ * /proc/self/status (Linux only).</li>
+ * </ul>
+ * <p>
+ * Both are also logged: RSS once the application is ready, and again with
+ * the time to the first record. Spring Boot already exports the time until
+ * ready as application.ready.time.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    private final Instant processStart = ProcessHandle.current().info().startInstant().orElseGet(Instant::now);
+    // -1 until the first record
+    private final AtomicLong firstRecordMillis = new AtomicLong(-1);
+
+    public StartupReport(MeterRegistry registry) {
+        TimeGauge.builder("app.startup.first.record", firstRecordMillis, TimeUnit.MILLISECONDS,
+                millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from process start until the first record was consumed")
+                .register(registry);
+        Gauge.builder("process.memory.rss", StartupReport::residentSetBytes)
+                .description("Resident set size of the process")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Notes that a listener received records; only the first call counts.
+     */
+    public void recordsConsumed() {
+        if (firstRecordMillis.get() < 0) {
+            long millis = Duration.between(processStart, Instant.now()).toMillis();
+            if (firstRecordMillis.compareAndSet(-1, millis)) {
+                log.info("First record consumed {} ms after process start, RSS {} MB", millis,
+                        residentSetBytes() / (1024 * 1024));
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void ready() {
+        log.info("Ready {} ms after process start, RSS {} MB",
+                Duration.between(processStart, Instant.now()).toMillis(), residentSetBytes() / (1024 * 1024));
+    }
+
+    /**
+     * @return VmRSS in bytes, or -1 where /proc is not available.
+     */
+    static long residentSetBytes() {
+        try {
+            List<String> lines = Files.readAllLines(PROC_STATUS);
+            for (String line : lines) {
+                if (line.startsWith("VmRSS:")) {
+                    // "VmRSS:     123456 kB"
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim()) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.shivam.kafka.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated acknowledgement returned by the bulk ingest endpoints.
+ * <p>
+ * Instead of one response per record, the client receives the number of
+ * records accepted, acknowledged and failed, plus the offset range written to
+ * each partition.
+ * </p>
+ * 
+ * @param topic     The topic the records were sent to.
+ * @param accepted  Number of records parsed from the request body.
+ * @param succeeded Number of records acknowledged by the broker.
+ * @param failed    Number of records that could not be parsed or sent.
+ * @param offsets   Offset range written per partition.
+ * @param errors    A sample of the failure reasons (bounded).
+ * 
+ * @author Shivam Srivastav
+ */
+public record BulkSendResult(String topic, long accepted, long succeeded, long failed,
+        Map<Integer, PartitionOffsets> offsets, List<String> errors) {
+
+    /**
+     * First and last offset acknowledged on a partition, and how many records
+     * landed there.
+     */
+    public record PartitionOffsets(long firstOffset, long lastOffset, long count) {
+    }
+}
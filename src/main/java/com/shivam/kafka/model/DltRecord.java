@@ -0,0 +1,19 @@
+package com.shivam.kafka.model;
+
+/**
+ * A dead-lettered record as returned by the DLT inspection endpoint.
+ * 
+ * @param partition        DLT partition.
+ * @param offset           DLT offset.
+ * @param timestamp        Record timestamp.
+ * @param key              Record key (may be null).
+ * @param value            Record value.
+ * @param originalTopic    Topic the record failed on.
+ * @param exceptionClass   Fully qualified class of the processing exception.
+ * @param exceptionMessage Message of the processing exception.
+ * 
+ * @author Shivam Srivastav
+ */
+public record DltRecord(int partition, long offset, long timestamp, String key, String value,
+        String originalTopic, String exceptionClass, String exceptionMessage) {
+}
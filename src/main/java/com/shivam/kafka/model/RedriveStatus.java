@@ -0,0 +1,22 @@
+package com.shivam.kafka.model;
+
+import java.util.Map;
+
+/**
+ * Progress of a DLT redrive.
+ * 
+ * @param name          Redrive name; progress is tracked per name.
+ * @param state         RUNNING, COMPLETED, STOPPED or FAILED.
+ * @param targetTopic   Topic the records are replayed to.
+ * @param ratePerSecond Configured replay rate.
+ * @param redriven      Records replayed so far by this run.
+ * @param skipped       Records not matching the exception filter.
+ * @param positions     Next DLT offset to replay, per partition.
+ * @param endOffsets    DLT end offsets captured when the run started.
+ * @param error         Failure reason when state is FAILED.
+ * 
+ * @author Shivam Srivastav
+ */
+public record RedriveStatus(String name, String state, String targetTopic, double ratePerSecond, long redriven,
+        long skipped, Map<Integer, Long> positions, Map<Integer, Long> endOffsets, String error) {
+}
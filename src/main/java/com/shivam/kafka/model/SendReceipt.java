@@ -0,0 +1,32 @@
+package com.shivam.kafka.model;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+/**
+ * Broker acknowledgement returned by the async send endpoints.
+ * 
+ * @param topic     The topic the record was written to.
+ * @param partition The partition the record was written to.
+ * @param offset    The record offset, or -1 when sent with acks=0.
+ * @param timestamp The record timestamp assigned by the producer or broker.
+ * @param acks      The acks policy the record was sent with.
+ * @param latencyMs Time between the send call and the broker acknowledgement.
+ * 
+ * @author Shivam Srivastav
+ */
+public record SendReceipt(String topic, int partition, long offset, long timestamp, String acks,
+        double latencyMs) {
+
+    /**
+     * Builds a receipt from the producer metadata.
+     * 
+     * @param metadata       The metadata of the acknowledged record.
+     * @param acks           The acks value the record was sent with.
+     * @param startNanoTime  {@link System#nanoTime()} captured before the send.
+     */
+    public static SendReceipt of(RecordMetadata metadata, String acks, long startNanoTime) {
+        double latencyMs = (System.nanoTime() - startNanoTime) / 1_000_000.0;
+        return new SendReceipt(metadata.topic(), metadata.partition(), metadata.offset(), metadata.timestamp(),
+                acks, latencyMs);
+    }
+}
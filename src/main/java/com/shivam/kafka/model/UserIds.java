@@ -0,0 +1,27 @@
+package com.shivam.kafka.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids for users sent without one. Ids follow the clock (milliseconds since
+ * the epoch) but are never handed out twice by this process, so users
+ * created in the same millisecond, e.g. the lines of a bulk upload, keep
+ * their own key, view entry and dedup slot.
+ *
+ * @author Shivam Srivastav
+ */
+public final class UserIds {
+
+    private static final AtomicLong last = new AtomicLong();
+
+    private UserIds() {
+    }
+
+    /**
+     * @return the current time in milliseconds, or one more than the last id
+     *         if that is not greater.
+     */
+    public static long next() {
+        return last.updateAndGet(previous -> Math.max(previous + 1, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,272 @@
+package com.shivam.kafka.parallel;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.listener.ListenerType;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * Record listener that processes the records of one partition concurrently
+ * on virtual threads while keeping the order of records with the same key.
+ * <p>
+ * Records with the same key are chained, so they run one after another in
+ * offset order; records with different (or null) keys run in parallel. The
+ * container runs with AckMode.MANUAL and a partition's offset is only
+ * acknowledged up to the last record below the lowest offset still in
+ * flight, so a restart never skips an unfinished record (records after it
+ * may be processed again).
+ * </p>
+ * <p>
+ * When more than maxInFlight records are in flight the container is paused,
+ * and it is resumed once half of them have completed. A pause takes effect
+ * after the current poll, so in-flight records can exceed the limit by up to
+ * max.poll.records.
+ * </p>
+ * <p>
+ * A failed record is retried in place with the given back off (only its key
+ * waits) and then handed to the recoverer.
+ * </p>
+ * 
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @author Shivam Srivastav
+ */
+public class KeyOrderedParallelListener<K, V> implements AcknowledgingConsumerAwareMessageListener<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedParallelListener.class);
+
+    private final GenericMessageListener<ConsumerRecord<K, V>> delegate;
+    private final ListenerType delegateType;
+    private final MessageListenerContainer container;
+    private final int maxInFlight;
+    private final int resumeBelow;
+    private final BackOff backOff;
+    private final ConsumerRecordRecoverer recoverer;
+
+    private final ExecutorService executor = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("parallel-listener-", 0).factory());
+    private final Map<Object, CompletableFuture<Void>> keyTails = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionTracker> trackers = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean paused = new AtomicBoolean();
+
+    public KeyOrderedParallelListener(GenericMessageListener<ConsumerRecord<K, V>> delegate,
+            MessageListenerContainer container, int maxInFlight, BackOff backOff,
+            ConsumerRecordRecoverer recoverer) {
+        this.delegate = delegate;
+        this.delegateType = ListenerUtils.determineListenerType(delegate);
+        this.container = container;
+        this.maxInFlight = maxInFlight;
+        this.resumeBelow = Math.max(1, maxInFlight / 2);
+        this.backOff = backOff;
+        this.recoverer = recoverer;
+    }
+
+    /**
+     * Called on the consumer thread: hands the record to a virtual thread and
+     * returns immediately.
+     */
+    @Override
+    public void onMessage(ConsumerRecord<K, V> record, Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+        PartitionTracker tracker = trackers.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                tp -> new PartitionTracker());
+        tracker.dispatched(record.offset());
+
+        Runnable task = () -> process(record);
+        K key = record.key();
+        CompletableFuture<Void> done = key == null
+                ? CompletableFuture.runAsync(task, executor)
+                : keyTails.compute(key, (k, tail) -> tail == null
+                        ? CompletableFuture.runAsync(task, executor)
+                        : tail.thenRunAsync(task, executor));
+
+        if (inFlight.incrementAndGet() >= maxInFlight && paused.compareAndSet(false, true)) {
+            log.debug("{} records in flight, pausing {}", maxInFlight, container.getListenerId());
+            container.pause();
+        }
+        done.whenComplete((result, ex) -> {
+            if (key != null) {
+                keyTails.remove(key, done);
+            }
+            tracker.completed(record.offset(), acknowledgment);
+            if (inFlight.decrementAndGet() <= resumeBelow && paused.compareAndSet(true, false)) {
+                log.debug("In-flight records below {}, resuming {}", resumeBelow, container.getListenerId());
+                container.resume();
+            }
+        });
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Wraps the container's rebalance listener so that records of revoked
+     * partitions that complete late are not acknowledged: the new owner
+     * consumes them again from the last committed offset.
+     */
+    public ConsumerAwareRebalanceListener rebalanceListener(ConsumerRebalanceListener existing) {
+        return new RevocationListener(existing);
+    }
+
+    /**
+     * Runs the delegate, retrying with the back off and recovering when it is
+     * exhausted. Never throws, so a failure does not break its key's chain.
+     */
+    private void process(ConsumerRecord<K, V> record) {
+        BackOffExecution execution = null;
+        while (true) {
+            try {
+                invokeDelegate(record);
+                return;
+            } catch (RuntimeException e) {
+                if (execution == null) {
+                    execution = backOff.start();
+                }
+                long waitMs = execution.nextBackOff();
+                if (waitMs == BackOffExecution.STOP) {
+                    recover(record, e);
+                    return;
+                }
+                log.debug("Retrying {}-{}@{} in {} ms", record.topic(), record.partition(), record.offset(), waitMs,
+                        e);
+                try {
+                    Thread.sleep(waitMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    recover(record, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void recover(ConsumerRecord<K, V> record, RuntimeException cause) {
+        try {
+            recoverer.accept(record, cause);
+        } catch (RuntimeException e) {
+            log.error("Failed to recover {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+        }
+    }
+
+    private void invokeDelegate(ConsumerRecord<K, V> record) {
+        // The consumer is not thread safe, so it is never passed on to worker threads
+        switch (delegateType) {
+            case ACKNOWLEDGING_CONSUMER_AWARE -> delegate.onMessage(record, null, null);
+            case ACKNOWLEDGING -> delegate.onMessage(record, (Acknowledgment) null);
+            case CONSUMER_AWARE -> delegate.onMessage(record, (Consumer<?, ?>) null);
+            case SIMPLE -> delegate.onMessage(record);
+        }
+    }
+
+    /**
+     * Offsets of one partition: in flight, and completed but not yet
+     * acknowledged because a lower offset is still in flight.
+     */
+    private static final class PartitionTracker {
+
+        private final TreeSet<Long> inFlight = new TreeSet<>();
+        private final TreeMap<Long, Acknowledgment> completed = new TreeMap<>();
+        private boolean revoked;
+
+        synchronized void dispatched(long offset) {
+            inFlight.add(offset);
+        }
+
+        synchronized void completed(long offset, Acknowledgment acknowledgment) {
+            if (revoked || !inFlight.remove(offset)) {
+                return;
+            }
+            completed.put(offset, acknowledgment);
+            long lowestInFlight = inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.first();
+            Map<Long, Acknowledgment> committable = completed.headMap(lowestInFlight);
+            if (!committable.isEmpty()) {
+                // Acknowledging the highest contiguous record commits everything before it
+                completed.lowerEntry(lowestInFlight).getValue().acknowledge();
+                committable.clear();
+            }
+        }
+
+        synchronized void revoke() {
+            revoked = true;
+            completed.clear();
+        }
+    }
+
+    private final class RevocationListener implements ConsumerAwareRebalanceListener {
+
+        private final ConsumerRebalanceListener delegate;
+
+        RevocationListener(ConsumerRebalanceListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+                aware.onPartitionsRevokedBeforeCommit(consumer, partitions);
+            } else if (delegate != null) {
+                delegate.onPartitionsRevoked(partitions);
+            }
+        }
+
+        @Override
+        public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+                aware.onPartitionsRevokedAfterCommit(consumer, partitions);
+            }
+            revoke(partitions);
+        }
+
+        @Override
+        public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+                aware.onPartitionsLost(consumer, partitions);
+            } else if (delegate != null) {
+                delegate.onPartitionsLost(partitions);
+            }
+            revoke(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+                aware.onPartitionsAssigned(consumer, partitions);
+            } else if (delegate != null) {
+                delegate.onPartitionsAssigned(partitions);
+            }
+        }
+
+        private void revoke(Collection<TopicPartition> partitions) {
+            for (TopicPartition partition : partitions) {
+                PartitionTracker tracker = trackers.remove(partition);
+                if (tracker != null) {
+                    tracker.revoke();
+                }
+            }
+        }
+    }
+}
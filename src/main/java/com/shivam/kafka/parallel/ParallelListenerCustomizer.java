@@ -0,0 +1,91 @@
+package com.shivam.kafka.parallel;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.util.backoff.BackOff;
+
+/**
+ * Switches the record listeners of a container factory to
+ * {@link KeyOrderedParallelListener}.
+ * <p>
+ * Set it on any ConcurrentKafkaListenerContainerFactory with
+ * setContainerCustomizer. Batch listeners are left as they are, and so are
+ * retry topic and DLT containers, which keep their own pause-until-due and
+ * error handling.
+ * </p>
+ * 
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @author Shivam Srivastav
+ */
+public class ParallelListenerCustomizer<K, V>
+        implements ContainerCustomizer<K, V, ConcurrentMessageListenerContainer<K, V>> {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelListenerCustomizer.class);
+
+    private static final Pattern RETRY_OR_DLT_TOPIC = Pattern.compile(".*(-retry(-\\d+)?|\\.DLT)$");
+
+    private final int maxInFlight;
+    private final BackOff backOff;
+    private final ConsumerRecordRecoverer recoverer;
+
+    /**
+     * Logs and skips records whose retries are exhausted, like the default
+     * DefaultErrorHandler.
+     * 
+     * @param maxInFlight Records in flight per container before it is paused.
+     * @param backOff     In-place retries of a failed record.
+     */
+    public ParallelListenerCustomizer(int maxInFlight, BackOff backOff) {
+        this(maxInFlight, backOff, (record, ex) -> log.error("Retries exhausted for {}-{}@{}, skipping it",
+                record.topic(), record.partition(), record.offset(), ex));
+    }
+
+    /**
+     * @param maxInFlight Records in flight per container before it is paused.
+     * @param backOff     In-place retries of a failed record.
+     * @param recoverer   Called when the retries are exhausted.
+     */
+    public ParallelListenerCustomizer(int maxInFlight, BackOff backOff, ConsumerRecordRecoverer recoverer) {
+        this.maxInFlight = maxInFlight;
+        this.backOff = backOff;
+        this.recoverer = recoverer;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(ConcurrentMessageListenerContainer<K, V> container) {
+        ContainerProperties properties = container.getContainerProperties();
+        Object listener = properties.getMessageListener();
+        if (listener == null) {
+            // Listener is set up later (factory.createContainer); wrap it with KeyOrderedParallelListener directly
+            return;
+        }
+        if (listener instanceof BatchMessageListener) {
+            log.warn("Container {} has a batch listener, parallel processing is not applied",
+                    container.getListenerId());
+            return;
+        }
+        String[] topics = properties.getTopics();
+        if (topics != null && Arrays.stream(topics).anyMatch(topic -> RETRY_OR_DLT_TOPIC.matcher(topic).matches())) {
+            return;
+        }
+        KeyOrderedParallelListener<K, V> parallel = new KeyOrderedParallelListener<>(
+                (GenericMessageListener<ConsumerRecord<K, V>>) listener, container, maxInFlight, backOff, recoverer);
+        container.setupMessageListener(parallel);
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setConsumerRebalanceListener(parallel.rebalanceListener(properties.getConsumerRebalanceListener()));
+        log.info("Container {} processes records in parallel (max {} in flight)", container.getListenerId(),
+                maxInFlight);
+    }
+}
@@ -0,0 +1,83 @@
+package com.shivam.kafka.partitioning;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch: approximate frequencies of a stream of keys in a fixed
+ * depth x width table of counters, whatever the number of distinct keys.
+ * <p>
+ * Each key increments one counter per row; its estimate is the smallest of
+ * those counters, so it can only overestimate (by about total / width with
+ * high probability). Rows are indexed with double hashing of a 64-bit key
+ * hash. {@link #halve()} ages the counts so the sketch follows recent
+ * traffic.
+ * </p>
+ * <p>
+ * Thread safe; counters are updated without locks, and a halve that races
+ * with increments may lose a few of them, which only makes estimates lower.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param depth Number of rows (hash functions); 4 is plenty for hot-key
+     *              detection.
+     * @param width Counters per row, rounded up to a power of two.
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || width > (1 << 24)) {
+            throw new IllegalArgumentException("depth must be positive and width between 1 and 2^24: "
+                    + depth + " x " + width);
+        }
+        int rowSize = Integer.highestOneBit(width * 2 - 1);
+        this.depth = depth;
+        this.mask = rowSize - 1;
+        this.counters = new AtomicIntegerArray(depth * rowSize);
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     * 
+     * @param hash 64-bit hash of the key.
+     * @return the key's estimated count, including this occurrence.
+     */
+    public int add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + ((h1 + row * h2) & mask);
+            estimate = Math.min(estimate, counters.incrementAndGet(index));
+        }
+        return estimate;
+    }
+
+    /**
+     * @param hash 64-bit hash of the key.
+     * @return the key's estimated count.
+     */
+    public int estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(row * (mask + 1) + ((h1 + row * h2) & mask)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter.
+     */
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+}
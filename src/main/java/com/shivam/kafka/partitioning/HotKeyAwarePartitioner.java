@@ -0,0 +1,65 @@
+package com.shivam.kafka.partitioning;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.internals.StickyPartitionCache;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * Partitioner that keys records by their key (the User id on
+ * mastery-json-topic) and spreads hot keys over a few partitions, as decided
+ * by the {@link HotKeyTracker}.
+ * <p>
+ * Keyed records of topics the tracker does not track are hashed like the
+ * default partitioner does; records without a key stick to one partition per
+ * batch. Configured by KafkaConfig through partitioner.class on the User
+ * producer only (a custom partitioner replaces the client's built-in
+ * partitioning for all topics), with the tracker passed in the producer
+ * configs under {@value #TRACKER_CONFIG}, so all producers share one sketch
+ * and one set of metrics.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public class HotKeyAwarePartitioner implements Partitioner {
+
+    public static final String TRACKER_CONFIG = "hot-key.tracker";
+
+    private final StickyPartitionCache stickyPartitionCache = new StickyPartitionCache();
+    private HotKeyTracker tracker;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        if (!(configs.get(TRACKER_CONFIG) instanceof HotKeyTracker hotKeyTracker)) {
+            throw new ConfigException(TRACKER_CONFIG, configs.get(TRACKER_CONFIG),
+                    "HotKeyAwarePartitioner needs a HotKeyTracker");
+        }
+        this.tracker = hotKeyTracker;
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+            Cluster cluster) {
+        if (keyBytes == null) {
+            return stickyPartitionCache.partition(topic, cluster);
+        }
+        int numPartitions = cluster.partitionCountForTopic(topic);
+        if (tracker.tracks(topic)) {
+            return tracker.partition(topic, key, keyBytes, numPartitions);
+        }
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
+        stickyPartitionCache.nextPartition(topic, cluster, prevPartition);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,220 @@
+package com.shivam.kafka.partitioning;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Detects hot keys per topic and decides their partition, for
+ * {@link HotKeyAwarePartitioner}.
+ * <p>
+ * Every keyed record of a tracked topic (kafka.partitioner.hot-key.topics) is
+ * counted in a {@link CountMinSketch}. A key is hot while its estimated count
+ * is at least kafka.partitioner.hot-key.threshold of the topic's recent
+ * records. Counts are halved every kafka.partitioner.hot-key.window records,
+ * so a key cools down once its traffic drops.
+ * </p>
+ * <ul>
+ * <li>Cold keys go to their hashed partition (murmur2, as the default
+ * partitioner does), so their records stay in order.</li>
+ * <li>Hot keys are spread over kafka.partitioner.hot-key.spread partitions:
+ * the hashed one and the ones after it. Records of a spread key lose their
+ * relative order while it is hot, which breaks consumers that rely on
+ * per-key order: UserViewService can keep an older update of the user,
+ * UserDeduplicator can see the same id on two partitions at once, and
+ * KeyOrderedParallelListener only orders keys within a partition. Keys listed
+ * in kafka.partitioner.hot-key.ordered-keys (or all keys with "*") are never
+ * spread.</li>
+ * </ul>
+ * <p>
+ * Skew (busiest partition / average partition, 1 is even) is exported as
+ * kafka.partitioner.skew{placement=hashed} for where records would have gone
+ * by key alone, and kafka.partitioner.skew{placement=assigned} for where they
+ * went. Records moved off their hashed partition are counted in
+ * kafka.partitioner.spread.records.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+public class HotKeyTracker {
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private final Set<String> topics;
+    private final double threshold;
+    private final int spread;
+    private final long window;
+    private final long minRecords;
+    private final int sketchWidth;
+    private final Set<String> orderedKeys;
+    private final boolean allOrdered;
+    private final MeterRegistry registry;
+    private final Map<String, Traffic> traffic = new ConcurrentHashMap<>();
+
+    public HotKeyTracker(@Value("${kafka.partitioner.hot-key.topics:mastery-json-topic}") Set<String> topics,
+            @Value("${kafka.partitioner.hot-key.threshold:0.05}") double threshold,
+            @Value("${kafka.partitioner.hot-key.spread:2}") int spread,
+            @Value("${kafka.partitioner.hot-key.window:100000}") long window,
+            @Value("${kafka.partitioner.hot-key.min-records:1000}") long minRecords,
+            @Value("${kafka.partitioner.hot-key.sketch-width:2048}") int sketchWidth,
+            @Value("${kafka.partitioner.hot-key.ordered-keys:}") Set<String> orderedKeys,
+            MeterRegistry registry) {
+        if (spread < 1) {
+            throw new IllegalArgumentException("kafka.partitioner.hot-key.spread must be positive: " + spread);
+        }
+        this.topics = topics;
+        this.threshold = threshold;
+        this.spread = spread;
+        this.window = window;
+        this.minRecords = minRecords;
+        this.sketchWidth = sketchWidth;
+        this.orderedKeys = orderedKeys;
+        this.allOrdered = orderedKeys.contains("*");
+        this.registry = registry;
+    }
+
+    /**
+     * @return whether records of the topic are partitioned by this tracker.
+     */
+    public boolean tracks(String topic) {
+        return topics.contains(topic);
+    }
+
+    /**
+     * Counts a keyed record and picks its partition.
+     * 
+     * @param topic         A tracked topic.
+     * @param key           The record key (compared with ordered-keys).
+     * @param keyBytes      The serialized key.
+     * @param numPartitions Partitions of the topic.
+     * @return the partition to send to.
+     */
+    public int partition(String topic, Object key, byte[] keyBytes, int numPartitions) {
+        int murmur = Utils.murmur2(keyBytes);
+        int hashed = Utils.toPositive(murmur) % numPartitions;
+        Traffic t = traffic.computeIfAbsent(topic, this::traffic);
+        long total = t.total.incrementAndGet();
+        int estimate = t.sketch.add(((long) murmur << 32) | (Arrays.hashCode(keyBytes) & 0xffffffffL));
+        int partition = hashed;
+        if (total >= minRecords && estimate >= threshold * total && spread > 1 && !allOrdered
+                && !orderedKeys.contains(String.valueOf(key))) {
+            int offset = ThreadLocalRandom.current().nextInt(Math.min(spread, numPartitions));
+            partition = (hashed + offset) % numPartitions;
+            if (partition != hashed) {
+                t.spreadRecords.increment();
+            }
+        }
+        t.count(hashed, partition, numPartitions);
+        if (total >= window) {
+            t.age();
+        }
+        return partition;
+    }
+
+    private Traffic traffic(String topic) {
+        Traffic t = new Traffic(new CountMinSketch(SKETCH_DEPTH, sketchWidth),
+                Counter.builder("kafka.partitioner.spread.records")
+                        .description("Records of hot keys sent to another partition than their hashed one")
+                        .tag("topic", topic)
+                        .register(registry));
+        Gauge.builder("kafka.partitioner.skew", t, traffic -> traffic.counts.skew(true))
+                .description("Busiest / average partition if records were partitioned by key alone")
+                .tag("topic", topic)
+                .tag("placement", "hashed")
+                .register(registry);
+        Gauge.builder("kafka.partitioner.skew", t, traffic -> traffic.counts.skew(false))
+                .description("Busiest / average partition of the records as partitioned")
+                .tag("topic", topic)
+                .tag("placement", "assigned")
+                .register(registry);
+        return t;
+    }
+
+    /**
+     * Recent traffic of one topic.
+     */
+    private static final class Traffic {
+
+        private final CountMinSketch sketch;
+        private final Counter spreadRecords;
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicBoolean aging = new AtomicBoolean();
+        private volatile PartitionCounts counts = new PartitionCounts(0);
+
+        Traffic(CountMinSketch sketch, Counter spreadRecords) {
+            this.sketch = sketch;
+            this.spreadRecords = spreadRecords;
+        }
+
+        void count(int hashed, int assigned, int numPartitions) {
+            PartitionCounts current = counts;
+            if (current.partitions() < numPartitions) {
+                // the topic grew: start counting over with the new partition count
+                current = new PartitionCounts(numPartitions);
+                counts = current;
+            }
+            current.hashed.incrementAndGet(hashed);
+            current.assigned.incrementAndGet(assigned);
+        }
+
+        void age() {
+            if (!aging.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sketch.halve();
+                counts.halve();
+                total.updateAndGet(value -> value / 2);
+            } finally {
+                aging.set(false);
+            }
+        }
+    }
+
+    /**
+     * Recent records per partition, by hashed and by assigned partition.
+     */
+    private record PartitionCounts(AtomicLongArray hashed, AtomicLongArray assigned) {
+
+        PartitionCounts(int partitions) {
+            this(new AtomicLongArray(partitions), new AtomicLongArray(partitions));
+        }
+
+        int partitions() {
+            return hashed.length();
+        }
+
+        double skew(boolean byHash) {
+            AtomicLongArray counts = byHash ? hashed : assigned;
+            long max = 0;
+            long sum = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                long count = counts.get(i);
+                max = Math.max(max, count);
+                sum += count;
+            }
+            return sum == 0 ? 1 : (double) max * counts.length() / sum;
+        }
+
+        void halve() {
+            for (int i = 0; i < hashed.length(); i++) {
+                hashed.set(i, hashed.get(i) / 2);
+                assigned.set(i, assigned.get(i) / 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.shivam.kafka.reactive;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shivam.kafka.controller.BulkSendAggregator;
+import com.shivam.kafka.model.BulkSendResult;
+import com.shivam.kafka.model.User;
+import com.shivam.kafka.model.UserIds;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+/**
+ * Streaming ingest endpoints for the three topics, served by
+ * {@link ReactiveKafkaServer} next to the servlet controllers.
+ * <p>
+ * The request body is decoded line by line and piped into a reactor-kafka
+ * sender. The sender requests records only while fewer than
+ * kafka.reactive.max-in-flight are unacknowledged. Reactor Netty reads the
+ * body only as records are requested, so a slow broker slows down the
+ * client's upload (TCP flow control). No request thread is held and the body
+ * is never buffered. The response is the same {@link BulkSendResult} as the
+ * servlet bulk endpoints.
+ * </p>
+ * <ul>
+ * <li>POST /api/reactive/beginner/stream: one String message per line.</li>
+ * <li>POST /api/reactive/intermediate/stream: one User JSON object per line,
+ * keyed by id; invalid lines are counted as failed.</li>
+ * <li>POST /api/reactive/advanced/stream: every line in one transaction, all
+ * or nothing (a line containing "fail" rolls it back). Uploads take turns,
+ * as the transactional sender runs one transaction at a time.</li>
+ * </ul>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.reactive.enabled", havingValue = "true")
+public class ReactiveIngestHandler {
+
+    private static final String BEGINNER_TOPIC = "mastery-beginner-topic";
+    private static final String JSON_TOPIC = "mastery-json-topic";
+    private static final String ADVANCED_TOPIC = "mastery-advanced-topic";
+    private static final Duration TURN_POLL_INTERVAL = Duration.ofMillis(5);
+
+    private final KafkaSender<String, Object> sender;
+    private final KafkaSender<String, String> transactionalSender;
+    private final ObjectMapper objectMapper;
+
+    // One transaction at a time on the transactional sender
+    private final Semaphore transactionTurn = new Semaphore(1);
+
+    public ReactiveIngestHandler(@Qualifier("reactiveKafkaSender") KafkaSender<String, Object> sender,
+            @Qualifier("reactiveTransactionalSender") KafkaSender<String, String> transactionalSender,
+            ObjectMapper objectMapper) {
+        this.sender = sender;
+        this.transactionalSender = transactionalSender;
+        this.objectMapper = objectMapper;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .POST("/api/reactive/beginner/stream", this::beginner)
+                .POST("/api/reactive/intermediate/stream", this::intermediate)
+                .POST("/api/reactive/advanced/stream", this::advanced)
+                .build();
+    }
+
+    Mono<ServerResponse> beginner(ServerRequest request) {
+        BulkSendAggregator aggregator = new BulkSendAggregator(BEGINNER_TOPIC);
+        Flux<SenderRecord<String, Object, Long>> records = lines(request)
+                .map(line -> SenderRecord.create(new ProducerRecord<String, Object>(BEGINNER_TOPIC, line.text()),
+                        line.number()));
+        return respond(sender.send(records).doOnNext(result -> record(aggregator, result)).then(), aggregator);
+    }
+
+    Mono<ServerResponse> intermediate(ServerRequest request) {
+        BulkSendAggregator aggregator = new BulkSendAggregator(JSON_TOPIC);
+        Flux<SenderRecord<String, Object, Long>> records = lines(request)
+                .handle((line, sink) -> {
+                    try {
+                        User user = objectMapper.readValue(line.text(), User.class);
+                        if (user.getId() == null) {
+                            user.setId(UserIds.next());
+                        }
+                        sink.next(SenderRecord.create(new ProducerRecord<String, Object>(JSON_TOPIC,
+                                user.getId().toString(), user), line.number()));
+                    } catch (IOException | RuntimeException e) {
+                        aggregator.reject(line.number(), e);
+                    }
+                });
+        return respond(sender.send(records).doOnNext(result -> record(aggregator, result)).then(), aggregator);
+    }
+
+    Mono<ServerResponse> advanced(ServerRequest request) {
+        BulkSendAggregator aggregator = new BulkSendAggregator(ADVANCED_TOPIC);
+        AtomicLong count = new AtomicLong();
+        Flux<SenderRecord<String, String, Long>> records = lines(request)
+                .doOnNext(line -> count.incrementAndGet())
+                .map(line -> {
+                    // Same business rule as AdvancedProducer
+                    if (line.text().contains("fail")) {
+                        throw new IllegalStateException("Simulated transaction failure!");
+                    }
+                    return SenderRecord.create(new ProducerRecord<>(ADVANCED_TOPIC, line.text()), line.number());
+                });
+        Mono<Void> sent = transactionalSender.sendTransactionally(Mono.just(records))
+                .concatMap(results -> results)
+                .doOnNext(result -> record(aggregator, result))
+                .then()
+                .onErrorResume(e -> {
+                    aggregator.abort(count.get(), e);
+                    return Mono.empty();
+                });
+        return respond(inTurn(sent), aggregator);
+    }
+
+    /**
+     * Runs a transaction once the previous one has finished. The turn is polled
+     * without blocking, and released when the transaction ends or the client
+     * goes away.
+     */
+    private Mono<Void> inTurn(Mono<Void> transaction) {
+        Mono<Semaphore> turn = Mono.fromCallable(() -> transactionTurn.tryAcquire() ? transactionTurn : null)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(TURN_POLL_INTERVAL));
+        return Mono.usingWhen(turn, acquired -> transaction, acquired -> Mono.fromRunnable(acquired::release));
+    }
+
+    private static Flux<Line> lines(ServerRequest request) {
+        return request.bodyToFlux(String.class)
+                .index((index, text) -> new Line(index + 1, text))
+                .filter(line -> !line.text().isBlank());
+    }
+
+    private static void record(BulkSendAggregator aggregator, SenderResult<Long> result) {
+        aggregator.record(result.exception() == null ? result.recordMetadata() : null, result.exception());
+    }
+
+    private static Mono<ServerResponse> respond(Mono<Void> sent, BulkSendAggregator aggregator) {
+        return sent.then(Mono.fromSupplier(aggregator::result))
+                .flatMap(result -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(result));
+    }
+
+    private record Line(long number, String text) {
+    }
+}
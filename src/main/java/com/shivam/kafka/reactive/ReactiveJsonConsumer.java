@@ -0,0 +1,127 @@
+package com.shivam.kafka.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.shivam.kafka.dedup.UserDeduplicator;
+import com.shivam.kafka.metrics.LogSampler;
+import com.shivam.kafka.model.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+
+/**
+ * Reactive variant of {@link com.shivam.kafka.intermediate.JsonConsumer}
+ * (kafka.reactive.consumer.enabled=true).
+ * <p>
+ * Records are grouped by partition and each partition is processed in order,
+ * on a scheduler of kafka.reactive.consumer.concurrency threads, so at most
+ * that many records are processed at the same time. Offsets are acknowledged
+ * after processing and committed by the receiver in the background. Demand is
+ * driven by processing: the receiver pauses fetching while records wait.
+ * </p>
+ * <p>
+ * Like JsonConsumer, users already processed are skipped
+ * ({@link UserDeduplicator}). Records that could not be deserialized arrive
+ * with a null value and are skipped. A record that still fails after two
+ * retries is logged and skipped.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.reactive.consumer.enabled", havingValue = "true")
+public class ReactiveJsonConsumer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveJsonConsumer.class);
+
+    private final ReceiverOptions<String, User> receiverOptions;
+    private final UserDeduplicator deduplicator;
+    private final LogSampler logSampler;
+    private final int concurrency;
+    private final Counter processed;
+    private volatile Scheduler scheduler;
+    private volatile Disposable subscription;
+
+    public ReactiveJsonConsumer(ReceiverOptions<String, User> reactiveUserReceiverOptions,
+            UserDeduplicator deduplicator, LogSampler logSampler,
+            @Value("${kafka.reactive.consumer.concurrency:4}") int concurrency, MeterRegistry registry) {
+        this.receiverOptions = reactiveUserReceiverOptions;
+        this.deduplicator = deduplicator;
+        this.logSampler = logSampler;
+        this.concurrency = concurrency;
+        this.processed = Counter.builder("kafka.reactive.consumer.records")
+                .description("User records processed by the reactive consumer")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        scheduler = Schedulers.newParallel("reactive-json", concurrency);
+        subscription = KafkaReceiver.create(receiverOptions)
+                .receive()
+                .groupBy(record -> record.receiverOffset().topicPartition())
+                .flatMap(partition -> partition
+                        .publishOn(scheduler)
+                        .concatMap(this::handle), Integer.MAX_VALUE)
+                .subscribe(null, e -> log.error("Reactive User consumer stopped", e));
+    }
+
+    private Mono<Void> handle(ReceiverRecord<String, User> record) {
+        return Mono.fromRunnable(() -> processOnce(record))
+                .retry(2)
+                .onErrorResume(e -> {
+                    log.error("Failed to process User at {}-{}@{}", record.topic(), record.partition(),
+                            record.offset(), e);
+                    return Mono.empty();
+                })
+                .then(Mono.fromRunnable(() -> record.receiverOffset().acknowledge()));
+    }
+
+    private void processOnce(ReceiverRecord<String, User> record) {
+        User user = record.value();
+        if (user == null) {
+            log.warn("Skipping undeserializable record at {}-{}@{}", record.topic(), record.partition(),
+                    record.offset());
+            return;
+        }
+        if (logSampler.sample()) {
+            log.info("Received User JSON (reactive): {}", user);
+        }
+        Long key = deduplicator.key(record);
+        if (deduplicator.isDuplicate(key)) {
+            return;
+        }
+        log.debug("Processing user: {}", user);
+        processed.increment();
+        deduplicator.markProcessed(key);
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+            subscription = null;
+        }
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+}
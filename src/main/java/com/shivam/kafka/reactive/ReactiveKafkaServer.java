@@ -0,0 +1,81 @@
+package com.shivam.kafka.reactive;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Reactor Netty server for the reactive endpoints, on kafka.reactive.port,
+ * next to the servlet container that serves the other controllers.
+ * <p>
+ * The application stays a servlet application (Tomcat on server.port). This
+ * server runs the WebFlux functional routes of {@link ReactiveIngestHandler}
+ * on Netty's event loops, about one thread per core, however many clients are
+ * connected.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.reactive.enabled", havingValue = "true")
+public class ReactiveKafkaServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveKafkaServer.class);
+
+    private final ReactiveIngestHandler handler;
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private volatile DisposableServer server;
+
+    public ReactiveKafkaServer(ReactiveIngestHandler handler, ObjectMapper objectMapper,
+            @Value("${kafka.reactive.port:8081}") int port) {
+        this.handler = handler;
+        this.objectMapper = objectMapper;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(handler.routes(), HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build());
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive endpoints listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer current = server;
+        if (current != null) {
+            current.disposeNow(Duration.ofSeconds(10));
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
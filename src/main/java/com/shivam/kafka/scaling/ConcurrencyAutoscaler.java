@@ -0,0 +1,275 @@
+package com.shivam.kafka.scaling;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Adjusts listener container concurrency to consumer group lag.
+ * <p>
+ * Every kafka.autoscale.interval-ms the lag of each running container of the
+ * configured groups is computed with the AdminClient (end offsets minus the
+ * group's committed offsets for the container's topics) and compared with two
+ * per-consumer thresholds:
+ * </p>
+ * <ul>
+ * <li>above scale-up-lag per consumer: concurrency is raised to
+ * lag / scale-up-lag consumers (rounded up), at most max-concurrency;</li>
+ * <li>below scale-down-lag per consumer: one consumer is removed, down to
+ * min-concurrency.</li>
+ * </ul>
+ * <p>
+ * Between the two thresholds nothing changes (hysteresis). A change is only
+ * applied after the same decision was reached stable-checks times in a row
+ * and cooldown-ms after the container's previous change, because each change
+ * restarts the container and rebalances the group.
+ * </p>
+ * <p>
+ * Consumers beyond the partition count would sit idle, so concurrency is
+ * capped at the partition count. With grow-partitions=true the topics are
+ * grown through KafkaAdmin instead, up to max-partitions. Adding partitions
+ * changes which partition a key maps to, so per-key ordering is only
+ * guaranteed again once the records produced before the change are consumed.
+ * Retry and DLT containers are never scaled: their lag is intentional.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.autoscale.enabled", havingValue = "true")
+public class ConcurrencyAutoscaler {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyAutoscaler.class);
+
+    private static final Pattern RETRY_OR_DLT_TOPIC = Pattern.compile(".*(-retry(-\\d+)?|\\.DLT)$");
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final KafkaAdmin kafkaAdmin;
+    private final MeterRegistry meterRegistry;
+    private final AdminClient adminClient;
+    private final Map<String, ScalingState> states = new ConcurrentHashMap<>();
+
+    @Value("${kafka.autoscale.groups:beginner-group,json-group,advanced-group}")
+    private List<String> groups;
+
+    @Value("${kafka.autoscale.min-concurrency:1}")
+    private int minConcurrency;
+
+    @Value("${kafka.autoscale.max-concurrency:12}")
+    private int maxConcurrency;
+
+    @Value("${kafka.autoscale.scale-up-lag:10000}")
+    private long scaleUpLag;
+
+    @Value("${kafka.autoscale.scale-down-lag:1000}")
+    private long scaleDownLag;
+
+    @Value("${kafka.autoscale.stable-checks:2}")
+    private int stableChecks;
+
+    @Value("${kafka.autoscale.cooldown-ms:120000}")
+    private long cooldownMs;
+
+    @Value("${kafka.autoscale.grow-partitions:false}")
+    private boolean growPartitions;
+
+    @Value("${kafka.autoscale.max-partitions:12}")
+    private int maxPartitions;
+
+    public ConcurrencyAutoscaler(KafkaListenerEndpointRegistry registry, KafkaAdmin kafkaAdmin,
+            MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.meterRegistry = meterRegistry;
+        this.adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+    }
+
+    @Scheduled(initialDelayString = "${kafka.autoscale.interval-ms:30000}",
+            fixedDelayString = "${kafka.autoscale.interval-ms:30000}")
+    public void evaluate() {
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent && concurrent.isRunning()
+                    && groups.contains(concurrent.getGroupId()) && isScalable(concurrent)) {
+                try {
+                    evaluate(concurrent);
+                } catch (ExecutionException | TimeoutException | RuntimeException e) {
+                    log.warn("Could not evaluate lag of container {}", concurrent.getListenerId(), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean isScalable(ConcurrentMessageListenerContainer<?, ?> container) {
+        String[] topics = container.getContainerProperties().getTopics();
+        return topics != null && Arrays.stream(topics).noneMatch(topic -> RETRY_OR_DLT_TOPIC.matcher(topic).matches());
+    }
+
+    private void evaluate(ConcurrentMessageListenerContainer<?, ?> container)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        List<String> topics = Arrays.asList(container.getContainerProperties().getTopics());
+        Map<String, TopicDescription> descriptions = adminClient.describeTopics(topics).allTopicNames()
+                .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        int partitions = descriptions.values().stream().mapToInt(d -> d.partitions().size()).min().orElse(1);
+        long lag = lag(container.getGroupId(), descriptions);
+
+        ScalingState state = states.computeIfAbsent(container.getListenerId(), id -> newState(container));
+        int current = container.getConcurrency();
+        int desired = current;
+        if (lag > (long) current * scaleUpLag) {
+            desired = (int) Math.min(maxConcurrency, (lag + scaleUpLag - 1) / scaleUpLag);
+        } else if (lag < (long) current * scaleDownLag) {
+            desired = Math.max(minConcurrency, current - 1);
+        }
+        if (!growPartitions) {
+            desired = Math.min(desired, partitions);
+        }
+        log.debug("Container {}: lag {}, concurrency {}, desired {}", container.getListenerId(), lag, current,
+                desired);
+
+        if (desired == current) {
+            // A check without a decision breaks the run of identical decisions
+            state.reset();
+            return;
+        }
+        if (!state.confirm(desired, stableChecks)
+                || System.currentTimeMillis() - state.lastChangeMillis < cooldownMs) {
+            return;
+        }
+        if (desired > partitions) {
+            desired = growPartitions(topics, partitions, desired);
+            if (desired == current) {
+                return;
+            }
+        }
+        log.info("Scaling container {} from {} to {} consumers (lag {})", container.getListenerId(), current,
+                desired, lag);
+        // Concurrency can only be changed while the container is stopped
+        container.stop();
+        container.setConcurrency(desired);
+        container.start();
+        state.changed();
+    }
+
+    /**
+     * Total lag of the group on the given topics. Partitions without a
+     * committed offset count from the log start.
+     */
+    private long lag(String groupId, Map<String, TopicDescription> topics)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+        topics.values().forEach(description -> description.partitions().forEach(partition -> {
+            TopicPartition tp = new TopicPartition(description.name(), partition.partition());
+            latest.put(tp, OffsetSpec.latest());
+            if (committed.get(tp) == null) {
+                earliest.put(tp, OffsetSpec.earliest());
+            }
+        }));
+        Map<TopicPartition, ListOffsetsResultInfo> ends = adminClient.listOffsets(latest).all()
+                .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<TopicPartition, ListOffsetsResultInfo> starts = earliest.isEmpty() ? Map.of()
+                : adminClient.listOffsets(earliest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long lag = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResultInfo> end : ends.entrySet()) {
+            OffsetAndMetadata position = committed.get(end.getKey());
+            long from = position != null ? position.offset() : starts.get(end.getKey()).offset();
+            lag += Math.max(0, end.getValue().offset() - from);
+        }
+        return lag;
+    }
+
+    /**
+     * Grows the topics so that the desired number of consumers all get a
+     * partition.
+     * 
+     * @return the concurrency that can be used after growing.
+     */
+    private int growPartitions(List<String> topics, int partitions, int desired) {
+        int target = Math.min(desired, maxPartitions);
+        if (target <= partitions) {
+            return partitions;
+        }
+        log.info("Growing partitions of {} from {} to {}", topics, partitions, target);
+        kafkaAdmin.createOrModifyTopics(topics.stream()
+                .map(topic -> TopicBuilder.name(topic).partitions(target).build())
+                .toArray(NewTopic[]::new));
+        return target;
+    }
+
+    private ScalingState newState(ConcurrentMessageListenerContainer<?, ?> container) {
+        Gauge.builder("kafka.listener.concurrency", container, c -> c.getConcurrency())
+                .description("Consumer threads of the listener container")
+                .tag("listener", container.getListenerId())
+                .register(meterRegistry);
+        return new ScalingState();
+    }
+
+    @PreDestroy
+    void close() {
+        adminClient.close();
+    }
+
+    /**
+     * Consecutive identical decisions and time of the last change of one
+     * container.
+     */
+    private static final class ScalingState {
+
+        private int pendingConcurrency;
+        private int confirmations;
+        private long lastChangeMillis;
+
+        boolean confirm(int desired, int required) {
+            if (desired != pendingConcurrency) {
+                pendingConcurrency = desired;
+                confirmations = 0;
+            }
+            return ++confirmations >= required;
+        }
+
+        void reset() {
+            pendingConcurrency = 0;
+            confirmations = 0;
+        }
+
+        void changed() {
+            reset();
+            lastChangeMillis = System.currentTimeMillis();
+        }
+    }
+}
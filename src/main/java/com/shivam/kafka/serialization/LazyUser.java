@@ -0,0 +1,124 @@
+package com.shivam.kafka.serialization;
+
+import java.nio.ByteBuffer;
+
+import com.shivam.kafka.model.User;
+
+/**
+ * A {@link User} that is a view over its {@link UserBinaryFormat} record
+ * bytes, with fields decoded on first access.
+ * <p>
+ * Wrapping a record allocates only this object, so a consumer that routes or
+ * filters on {@link #getId()} never creates the name and email Strings. The
+ * id is decoded on its own; name or email (or toString) decode all fields
+ * and release the bytes. Setters decode first, so a view can be updated like
+ * any User.
+ * </p>
+ * <p>
+ * Only the version byte is checked when wrapping; a record that is
+ * truncated or malformed further in fails on first access with an
+ * IllegalArgumentException or BufferUnderflowException. Safe to share
+ * between threads: concurrent first accesses may decode twice, with the same
+ * result.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public final class LazyUser extends User {
+
+    /** The record bytes until every field is decoded, then null. */
+    private volatile byte[] data;
+    private volatile boolean idDecoded;
+
+    private LazyUser(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Wraps a binary User record without copying or decoding it.
+     * 
+     * @throws IllegalArgumentException if the record is empty or has an
+     *                                  unsupported version.
+     */
+    public static LazyUser wrap(byte[] data) {
+        if (data.length < 2 || data[0] < UserBinaryFormat.VERSION_1) {
+            throw new IllegalArgumentException("Not a binary User record (version "
+                    + (data.length > 0 ? data[0] : "missing") + ")");
+        }
+        return new LazyUser(data);
+    }
+
+    /**
+     * @return a view holding the fields of an already decoded User.
+     */
+    public static LazyUser of(User user) {
+        LazyUser view = new LazyUser(null);
+        view.setId(user.getId());
+        view.setName(user.getName());
+        view.setEmail(user.getEmail());
+        return view;
+    }
+
+    @Override
+    public Long getId() {
+        if (!idDecoded) {
+            byte[] bytes = data;
+            if (bytes != null) {
+                super.setId((bytes[1] & UserBinaryFormat.FLAG_ID) != 0
+                        ? UserBinaryFormat.readVarLong(ByteBuffer.wrap(bytes, 2, bytes.length - 2))
+                        : null);
+            }
+            idDecoded = true;
+        }
+        return super.getId();
+    }
+
+    @Override
+    public String getName() {
+        decode();
+        return super.getName();
+    }
+
+    @Override
+    public String getEmail() {
+        decode();
+        return super.getEmail();
+    }
+
+    @Override
+    public void setId(Long id) {
+        decode();
+        super.setId(id);
+    }
+
+    @Override
+    public void setName(String name) {
+        decode();
+        super.setName(name);
+    }
+
+    @Override
+    public void setEmail(String email) {
+        decode();
+        super.setEmail(email);
+    }
+
+    @Override
+    public String toString() {
+        decode();
+        return super.toString();
+    }
+
+    private void decode() {
+        byte[] bytes = data;
+        if (bytes == null) {
+            return;
+        }
+        User decoded = UserBinaryDeserializer.read(ByteBuffer.wrap(bytes));
+        super.setId(decoded.getId());
+        super.setName(decoded.getName());
+        super.setEmail(decoded.getEmail());
+        idDecoded = true;
+        data = null;
+    }
+}
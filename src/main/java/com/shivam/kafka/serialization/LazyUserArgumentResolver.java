@@ -0,0 +1,59 @@
+package com.shivam.kafka.serialization;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.kafka.support.KafkaNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
+import org.springframework.messaging.handler.invocation.MethodArgumentResolutionException;
+
+import com.shivam.kafka.model.User;
+
+/**
+ * Lets @KafkaListener methods take a {@link LazyUser} parameter.
+ * <p>
+ * With kafka.serde.user.consumer=lazy the record value already is a
+ * LazyUser and is passed as is. Eagerly decoded values (JSON records, other
+ * formats) are wrapped, and raw byte[] values are viewed without decoding.
+ * Tombstones resolve to null. Registered by KafkaConfig through a
+ * KafkaListenerConfigurer.
+ * </p>
+ * 
+ * <pre>
+ * &#64;KafkaListener(topics = "mastery-json-topic", containerFactory = "userKafkaListenerContainerFactory")
+ * public void route(LazyUser user) {
+ *     if (user.getId() % 2 == 0) { ... } // name and email are never decoded
+ * }
+ * </pre>
+ * 
+ * @author Shivam Srivastav
+ */
+public class LazyUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return LazyUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, Message<?> message) {
+        Object payload = message.getPayload();
+        if (payload instanceof LazyUser view) {
+            return view;
+        }
+        if (payload instanceof User user) {
+            return LazyUser.of(user);
+        }
+        if (payload instanceof byte[] bytes) {
+            try {
+                return LazyUser.wrap(bytes);
+            } catch (IllegalArgumentException e) {
+                throw new MethodArgumentResolutionException(message, parameter, e.getMessage(), e);
+            }
+        }
+        if (payload instanceof KafkaNull) {
+            return null;
+        }
+        throw new MethodArgumentResolutionException(message, parameter,
+                "Cannot view a " + payload.getClass().getName() + " payload as a LazyUser");
+    }
+}
@@ -0,0 +1,43 @@
+package com.shivam.kafka.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.shivam.kafka.model.User;
+
+/**
+ * Deserializes {@link UserBinaryFormat} records into {@link LazyUser} views
+ * instead of decoding them up front (kafka.serde.user.consumer=lazy).
+ * <p>
+ * Like {@link UserBinaryDeserializer}, records written by the JsonSerializer
+ * are decoded eagerly by a JsonDeserializer, so consumers can switch before
+ * the producers do.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public class LazyUserDeserializer implements Deserializer<User> {
+
+    private final JsonDeserializer<User> jsonFallback = new JsonDeserializer<>(User.class, false);
+
+    @Override
+    public User deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length > 0 && data[0] == UserBinaryFormat.JSON_START) {
+            return jsonFallback.deserialize(topic, data);
+        }
+        try {
+            return LazyUser.wrap(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Unable to deserialize User from topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonFallback.close();
+    }
+}
@@ -0,0 +1,64 @@
+package com.shivam.kafka.serialization;
+
+import java.nio.ByteBuffer;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.shivam.kafka.model.User;
+
+/**
+ * Deserializes {@link User} from the compact {@link UserBinaryFormat}.
+ * <p>
+ * Records that start with '{' were written by the JsonSerializer and are
+ * handed to a JsonDeserializer, so consumers can be switched to the binary
+ * format before the producers are.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public class UserBinaryDeserializer implements Deserializer<User> {
+
+    private final JsonDeserializer<User> jsonFallback = new JsonDeserializer<>(User.class, false);
+
+    @Override
+    public User deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length > 0 && data[0] == UserBinaryFormat.JSON_START) {
+            return jsonFallback.deserialize(topic, data);
+        }
+        try {
+            return read(ByteBuffer.wrap(data));
+        } catch (RuntimeException e) {
+            throw new SerializationException("Unable to deserialize User from topic " + topic, e);
+        }
+    }
+
+    static User read(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version < UserBinaryFormat.VERSION_1) {
+            throw new IllegalArgumentException("Unsupported User format version: " + version);
+        }
+        // Newer versions only append fields, so the v1 fields can always be read
+        int flags = buffer.get();
+        User user = new User();
+        if ((flags & UserBinaryFormat.FLAG_ID) != 0) {
+            user.setId(UserBinaryFormat.readVarLong(buffer));
+        }
+        if ((flags & UserBinaryFormat.FLAG_NAME) != 0) {
+            user.setName(UserBinaryFormat.readString(buffer));
+        }
+        if ((flags & UserBinaryFormat.FLAG_EMAIL) != 0) {
+            user.setEmail(UserBinaryFormat.readString(buffer));
+        }
+        return user;
+    }
+
+    @Override
+    public void close() {
+        jsonFallback.close();
+    }
+}
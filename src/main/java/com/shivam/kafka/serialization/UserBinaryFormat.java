@@ -0,0 +1,185 @@
+package com.shivam.kafka.serialization;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format shared by {@link UserBinarySerializer} and
+ * {@link UserBinaryDeserializer}.
+ * 
+ * <pre>
+ * +---------+-------+-----------------+---------------------+----------------------+
+ * | version | flags | id (zig-zag     | name (varint length | email (varint length |
+ * | 1 byte  | 1 byte| varlong)        | + UTF-8 bytes)      | + UTF-8 bytes)       |
+ * +---------+-------+-----------------+---------------------+----------------------+
+ * </pre>
+ * <p>
+ * The flags byte marks which fields are present (a null field is simply
+ * omitted). Fields are only ever appended in later versions, so a reader can
+ * decode the fields it knows and ignore the rest of the record.
+ * </p>
+ * 
+ * @author Shivam Srivastav
+ */
+public final class UserBinaryFormat {
+
+    public static final byte VERSION_1 = 1;
+
+    public static final int FLAG_ID = 1;
+    public static final int FLAG_NAME = 1 << 1;
+    public static final int FLAG_EMAIL = 1 << 2;
+
+    /** First byte of a JSON encoded User, used to detect the legacy format. */
+    public static final byte JSON_START = '{';
+
+    private UserBinaryFormat() {
+    }
+
+    // ------------------------------------------------------------------------
+    // Encoding
+    // ------------------------------------------------------------------------
+
+    static int varIntLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            length++;
+            value >>>= 7;
+        }
+        return length;
+    }
+
+    static int varLongLength(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        int length = 1;
+        while ((zigZag & ~0x7FL) != 0) {
+            length++;
+            zigZag >>>= 7;
+        }
+        return length;
+    }
+
+    static int writeVarInt(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    static int writeVarLong(byte[] buffer, int position, long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        buffer[position++] = (byte) zigZag;
+        return position;
+    }
+
+    /**
+     * Writes the length-prefixed UTF-8 form of the string without allocating
+     * an intermediate byte array. Unpaired surrogates are written as '?', like
+     * {@link String#getBytes(java.nio.charset.Charset)} does.
+     *
+     * @param utf8Length The {@link #utf8Length(String)} of the value.
+     */
+    static int writeString(byte[] buffer, int position, String value, int utf8Length) {
+        position = writeVarInt(buffer, position, utf8Length);
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buffer[position++] = '?';
+                }
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += 1;
+                }
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    // ------------------------------------------------------------------------
+    // Decoding (relative reads, the buffer position is advanced)
+    // ------------------------------------------------------------------------
+
+    public static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public static long readVarLong(ByteBuffer buffer) {
+        long zigZag = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+        } else {
+            value = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Advances past a length-prefixed string without decoding it.
+     */
+    public static void skipString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        buffer.position(buffer.position() + length);
+    }
+}
@@ -0,0 +1,328 @@
+package com.shivam.kafka.spool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps fire-and-forget sends when the broker is slow or down, in a local
+ * {@link SpoolLog}, and replays them once it is back.
+ * <p>
+ * Producers fail fast while the broker is unreachable: with the spool
+ * enabled, KafkaConfig lowers max.block.ms of the non-transactional
+ * producers to kafka.spool.handoff-timeout-ms, so a send that cannot get
+ * metadata or buffer space in time fails with a retriable error. Such sends
+ * are appended to the spool instead of failing the caller. From the first
+ * retriable failure until the drainer has emptied the spool, new sends go
+ * straight to it, so they stay behind the spooled ones. Sends already handed
+ * to the producer when the broker went away are not held back: they may
+ * still be acknowledged after later records are replayed, or fail and be
+ * spooled behind them, so records around an outage can be reordered.
+ * </p>
+ * <p>
+ * A drainer thread replays the spool every kafka.spool.drain-interval-ms, in
+ * batches of kafka.spool.drain-batch-size records sent together, and acks a
+ * batch in the spool (which deletes drained segments) only after the broker
+ * has acknowledged all of its records. A batch with a retriable failure
+ * (broker still unreachable, timeout) is sent again on the next run, so
+ * replayed records are delivered at least once. A record that fails with a
+ * non-retriable error (too large, not authorized, unknown topic...) would
+ * never succeed and would hold up the spool, and every send behind it,
+ * forever: it is logged, counted as dropped and acked past.
+ * </p>
+ * <p>
+ * A spooled send completes at once, so it also releases its
+ * AdmissionControl budget at once: during an outage callers are not
+ * throttled and the spool takes everything they send. kafka.spool.max-bytes
+ * bounds it; once the spool holds that many bytes, sends that would be
+ * spooled fail instead (counted as rejected) until the drainer catches up.
+ * </p>
+ * <p>
+ * Spool depth is exported as kafka.spool.depth, kafka.spool.size and
+ * kafka.spool.segments; kafka.spool.records counts records spooled, drained,
+ * dropped and rejected (the drain rate is the rate of event=drained).
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.spool.enabled", havingValue = "true", matchIfMissing = true)
+public class ProducerSpool implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProducerSpool.class);
+
+    private final KafkaTemplate<String, byte[]> template;
+    private final Serializer<Object> valueSerializer;
+    private final SpoolLog spoolLog;
+    private final long maxBytes;
+    private final int drainBatchSize;
+    private final long drainIntervalMs;
+    private final long drainTimeoutMs;
+    private final Counter spooled;
+    private final Counter drained;
+    private final Counter dropped;
+    private final Counter rejected;
+    private volatile ScheduledExecutorService drainer;
+    private volatile boolean spooling;
+
+    public ProducerSpool(@Qualifier("spoolKafkaTemplate") KafkaTemplate<String, byte[]> template,
+            @Qualifier("spoolValueSerializer") Serializer<Object> valueSerializer,
+            @Value("${kafka.spool.dir:data/spool}") String dir,
+            @Value("${kafka.spool.segment-size:67108864}") int segmentSize,
+            @Value("${kafka.spool.fsync:false}") boolean fsync,
+            @Value("${kafka.spool.max-bytes:1073741824}") long maxBytes,
+            @Value("${kafka.spool.drain-batch-size:500}") int drainBatchSize,
+            @Value("${kafka.spool.drain-interval-ms:1000}") long drainIntervalMs,
+            @Value("${kafka.spool.drain-timeout-ms:30000}") long drainTimeoutMs,
+            MeterRegistry registry) {
+        this.template = template;
+        this.valueSerializer = valueSerializer;
+        this.maxBytes = maxBytes;
+        this.drainBatchSize = drainBatchSize;
+        this.drainIntervalMs = drainIntervalMs;
+        this.drainTimeoutMs = drainTimeoutMs;
+        try {
+            this.spoolLog = SpoolLog.open(Paths.get(dir), segmentSize, fsync);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open producer spool in " + dir, e);
+        }
+        if (spoolLog.depth() > 0) {
+            log.info("Producer spool recovered {} records in {} segments", spoolLog.depth(), spoolLog.segments());
+        }
+        Gauge.builder("kafka.spool.depth", spoolLog, SpoolLog::depth)
+                .description("Records spooled and not yet acknowledged by the broker")
+                .register(registry);
+        Gauge.builder("kafka.spool.size", spoolLog, SpoolLog::bytes)
+                .description("Bytes spooled and not yet acknowledged by the broker")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("kafka.spool.segments", spoolLog, SpoolLog::segments)
+                .description("Spool segment files on disk")
+                .register(registry);
+        this.spooled = Counter.builder("kafka.spool.records")
+                .description("Records written to and drained from the spool")
+                .tag("event", "spooled")
+                .register(registry);
+        this.drained = Counter.builder("kafka.spool.records")
+                .description("Records written to and drained from the spool")
+                .tag("event", "drained")
+                .register(registry);
+        this.dropped = Counter.builder("kafka.spool.records")
+                .description("Records written to and drained from the spool")
+                .tag("event", "dropped")
+                .register(registry);
+        this.rejected = Counter.builder("kafka.spool.records")
+                .description("Records written to and drained from the spool")
+                .tag("event", "rejected")
+                .register(registry);
+    }
+
+    /**
+     * @return true from the first retriable failure until the spool has been
+     *         drained.
+     */
+    public boolean isBacklogged() {
+        return spooling || spoolLog.depth() > 0;
+    }
+
+    /**
+     * Runs a send, or spools the record if the spool is backlogged or the send
+     * fails with a retriable error (broker unreachable, buffer full, timeout).
+     *
+     * @param topic The topic the record is sent to.
+     * @param key   The record key, or null.
+     * @param value The record value.
+     * @param send  Starts the send.
+     * @return the send future; for a spooled record, completed once it is in
+     *         the spool, with partition -1 and no offset; failed if the
+     *         record should be spooled but the spool is full.
+     */
+    public <V> CompletableFuture<SendResult<String, V>> send(String topic, String key, V value,
+            Supplier<CompletableFuture<SendResult<String, V>>> send) {
+        if (isBacklogged()) {
+            return spool(topic, key, value, null);
+        }
+        CompletableFuture<SendResult<String, V>> future;
+        try {
+            future = send.get();
+        } catch (RuntimeException e) {
+            if (!isRetriable(e)) {
+                throw e;
+            }
+            return spool(topic, key, value, e);
+        }
+        return future.exceptionallyCompose(ex -> isRetriable(ex)
+                ? spool(topic, key, value, ex)
+                : CompletableFuture.failedFuture(ex));
+    }
+
+    private <V> CompletableFuture<SendResult<String, V>> spool(String topic, String key, V value, Throwable cause) {
+        spooling = true;
+        try {
+            if (spoolLog.bytes() >= maxBytes) {
+                rejected.increment();
+                throw new IllegalStateException("Producer spool is full (" + spoolLog.bytes() + " of " + maxBytes
+                        + " bytes), record for topic " + topic + " not sent");
+            }
+            byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
+            byte[] valueBytes = valueSerializer.serialize(topic, value);
+            long timestamp = System.currentTimeMillis();
+            spoolLog.append(new SpooledRecord(topic, keyBytes, valueBytes, timestamp));
+            spooled.increment();
+            RecordMetadata metadata = new RecordMetadata(
+                    new TopicPartition(topic, RecordMetadata.UNKNOWN_PARTITION), -1, 0, timestamp,
+                    keyBytes != null ? keyBytes.length : -1, valueBytes != null ? valueBytes.length : -1);
+            return CompletableFuture.completedFuture(
+                    new SendResult<>(new ProducerRecord<>(topic, null, timestamp, key, value), metadata));
+        } catch (IOException | RuntimeException e) {
+            if (cause != null) {
+                e.addSuppressed(cause);
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static boolean isRetriable(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replays the spool in order until it is empty or a batch has a retriable
+     * failure.
+     */
+    void drain() {
+        try {
+            SpoolLog.Batch batch = spoolLog.next(drainBatchSize);
+            while (!batch.records().isEmpty() && drainer != null) {
+                List<SpooledRecord> records = batch.records();
+                List<CompletableFuture<?>> acks = new ArrayList<>(records.size());
+                for (SpooledRecord record : records) {
+                    acks.add(replay(record));
+                }
+                try {
+                    CompletableFuture.allOf(acks.toArray(CompletableFuture<?>[]::new))
+                            .get(drainTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    // Failures are sorted out per record below
+                }
+                List<Integer> fatal = new ArrayList<>();
+                for (int i = 0; i < acks.size(); i++) {
+                    if (acks.get(i).isCompletedExceptionally()) {
+                        Throwable cause = acks.get(i).exceptionNow();
+                        if (isRetriable(cause)) {
+                            log.warn("Spool drain paused with {} records left: {}", spoolLog.depth(),
+                                    cause.toString());
+                            return;
+                        }
+                        fatal.add(i);
+                    }
+                }
+                spoolLog.ack(batch);
+                for (int i : fatal) {
+                    SpooledRecord record = records.get(i);
+                    log.error("Dropped spooled record for topic {} ({} bytes), it cannot be sent", record.topic(),
+                            record.value() != null ? record.value().length : 0, acks.get(i).exceptionNow());
+                }
+                dropped.increment(fatal.size());
+                drained.increment(records.size() - fatal.size());
+                batch = spoolLog.next(drainBatchSize);
+            }
+            if (batch.records().isEmpty()) {
+                // Sends that saw the flag and append after this are kept
+                // backlogged by the spool depth
+                spooling = false;
+            }
+        } catch (TimeoutException e) {
+            log.warn("Spool drain paused with {} records left: no broker ack within {} ms", spoolLog.depth(),
+                    drainTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.error("Spool drain failed", e);
+        }
+    }
+
+    private CompletableFuture<?> replay(SpooledRecord record) {
+        try {
+            return template.send(new ProducerRecord<>(record.topic(), null, record.timestamp(),
+                    record.key() != null ? new String(record.key(), StandardCharsets.UTF_8) : null,
+                    record.value()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (drainer != null) {
+            return;
+        }
+        drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "spool-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, 0, drainIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        ScheduledExecutorService executor = drainer;
+        if (executor == null) {
+            return;
+        }
+        drainer = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(drainTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return drainer != null;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        stop();
+        spoolLog.close();
+    }
+}
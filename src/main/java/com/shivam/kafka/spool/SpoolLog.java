@@ -0,0 +1,381 @@
+package com.shivam.kafka.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Segmented, memory-mapped write-ahead log of records waiting for the broker.
+ * <p>
+ * The log is a directory of fixed-size segment files named after their
+ * sequence number. Each segment starts with a header (magic, version, acked
+ * position) followed by frames: payload length, CRC32C of the payload, then
+ * the payload (topic, key, value, timestamp). A zero length marks the end of
+ * the written part; segment files are zero-filled when created.
+ * </p>
+ * <p>
+ * Records are read back oldest first with {@link #next(int)} and released
+ * with {@link #ack(Batch)} once the broker has acknowledged them, which moves
+ * the acked position in the segment header. A segment is deleted when all of
+ * its records are acked. On open, each segment is scanned from its header and
+ * the first frame with a bad length or CRC ends it: a record torn by a crash
+ * is dropped (its append never returned, so the caller was not told it was
+ * stored). Recovered segments are only read; appends go to a new segment.
+ * </p>
+ *
+ * @author Shivam Srivastav
+ */
+public final class SpoolLog implements Closeable {
+
+    private static final int MAGIC = 0x53504C31; // "SPL1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16; // magic, version, acked position, reserved
+    private static final int ACKED_POSITION_OFFSET = 8;
+    private static final int FRAME_OVERHEAD = 2 * Integer.BYTES; // length, CRC
+    private static final String SUFFIX = ".spool";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Oldest first; the last one is appended to
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentId;
+    private volatile long depth;
+    private volatile long bytes;
+
+    private SpoolLog(Path directory, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Opens the log in a directory, recovering the segments left there.
+     *
+     * @param directory   Where segments are kept; created if missing.
+     * @param segmentSize Size of each segment file; a record must fit in one.
+     * @param fsync       Force every append and ack to disk before returning,
+     *                    instead of leaving it to the OS page cache.
+     */
+    public static SpoolLog open(Path directory, int segmentSize, boolean fsync) throws IOException {
+        if (segmentSize <= HEADER_SIZE + FRAME_OVERHEAD) {
+            throw new IllegalArgumentException("Spool segment size too small: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        SpoolLog log = new SpoolLog(directory, segmentSize, fsync);
+        log.recover();
+        return log;
+    }
+
+    /**
+     * Appends a record at the end of the log.
+     *
+     * @throws IllegalArgumentException if the record does not fit in a segment.
+     */
+    public void append(SpooledRecord record) throws IOException {
+        byte[] payload = encode(record);
+        int frameSize = FRAME_OVERHEAD + payload.length;
+        if (frameSize > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Record of " + payload.length
+                    + " bytes does not fit in a spool segment of " + segmentSize + " bytes");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        lock.lock();
+        try {
+            Segment active = segments.peekLast();
+            if (active == null || active.sealed || segmentSize - active.writePosition < frameSize) {
+                active = createSegment();
+            }
+            int position = active.writePosition;
+            // Payload and CRC first, length last: a frame is only visible to
+            // recovery once its length is written
+            active.buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            active.buffer.put(position + FRAME_OVERHEAD, payload);
+            active.buffer.putInt(position, payload.length);
+            if (fsync) {
+                active.buffer.force(position, frameSize);
+            }
+            active.writePosition = position + frameSize;
+            active.records++;
+            depth++;
+            bytes += frameSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the oldest records not yet acked, all from one segment.
+     *
+     * @param maxRecords Maximum number of records to return.
+     * @return the records, empty when the log is drained.
+     */
+    public Batch next(int maxRecords) {
+        lock.lock();
+        try {
+            Segment head = segments.peekFirst();
+            if (head == null) {
+                return new Batch(List.of(), -1, HEADER_SIZE);
+            }
+            List<SpooledRecord> records = new ArrayList<>(Math.min(maxRecords, head.records));
+            int position = head.ackedPosition;
+            while (records.size() < maxRecords && position < head.writePosition) {
+                int length = head.buffer.getInt(position);
+                byte[] payload = new byte[length];
+                head.buffer.get(position + FRAME_OVERHEAD, payload);
+                records.add(decode(payload));
+                position += FRAME_OVERHEAD + length;
+            }
+            return new Batch(records, head.id, position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the records of a batch; they will not be returned by
+     * {@link #next(int)} again, also after a restart. Deletes the segment once
+     * all of its records are acked.
+     *
+     * @throws IllegalStateException if the batch is not the oldest unacked one.
+     */
+    public void ack(Batch batch) throws IOException {
+        if (batch.records().isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            Segment head = segments.peekFirst();
+            if (head == null || head.id != batch.segmentId() || batch.end() <= head.ackedPosition) {
+                throw new IllegalStateException("Spool batch acked out of order");
+            }
+            head.buffer.putInt(ACKED_POSITION_OFFSET, batch.end());
+            if (fsync) {
+                head.buffer.force(ACKED_POSITION_OFFSET, Integer.BYTES);
+            }
+            bytes -= batch.end() - head.ackedPosition;
+            depth -= batch.records().size();
+            head.records -= batch.records().size();
+            head.ackedPosition = batch.end();
+            if (head.ackedPosition == head.writePosition) {
+                // Fully drained: new appends go to a fresh segment
+                segments.removeFirst();
+                head.delete();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return records appended and not yet acked.
+     */
+    public long depth() {
+        return depth;
+    }
+
+    /**
+     * @return bytes of records appended and not yet acked, framing included.
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return segment files on disk.
+     */
+    public int segments() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+            segments.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                files.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+            }
+        }
+        for (var entry : files.entrySet()) {
+            Segment segment = Segment.open(entry.getKey(), entry.getValue());
+            segment.scan();
+            // Appends go to a fresh segment, never after a possibly torn tail
+            segment.sealed = true;
+            nextSegmentId = entry.getKey() + 1;
+            if (segment.records == 0) {
+                segment.delete();
+                continue;
+            }
+            segments.addLast(segment);
+            depth += segment.records;
+            bytes += segment.writePosition - segment.ackedPosition;
+        }
+    }
+
+    private Segment createSegment() throws IOException {
+        long id = nextSegmentId++;
+        Path path = directory.resolve(String.format("%020d%s", id, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(ACKED_POSITION_OFFSET, HEADER_SIZE);
+        if (fsync) {
+            buffer.force(0, HEADER_SIZE);
+        }
+        Segment segment = new Segment(id, path, channel, buffer);
+        segment.ackedPosition = HEADER_SIZE;
+        segment.writePosition = HEADER_SIZE;
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private static byte[] encode(SpooledRecord record) {
+        byte[] topic = record.topic().getBytes(StandardCharsets.UTF_8);
+        int size = Short.BYTES + topic.length
+                + Integer.BYTES + (record.key() != null ? record.key().length : 0)
+                + Integer.BYTES + (record.value() != null ? record.value().length : 0)
+                + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putShort((short) topic.length).put(topic);
+        putBytes(buffer, record.key());
+        putBytes(buffer, record.value());
+        buffer.putLong(record.timestamp());
+        return buffer.array();
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static SpooledRecord decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte[] topic = new byte[buffer.getShort()];
+        buffer.get(topic);
+        byte[] key = getBytes(buffer);
+        byte[] value = getBytes(buffer);
+        return new SpooledRecord(new String(topic, StandardCharsets.UTF_8), key, value, buffer.getLong());
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Records read by {@link #next(int)}, to be passed to {@link #ack(Batch)}
+     * once the broker has them.
+     *
+     * @param records   The records, oldest first.
+     * @param segmentId Segment they were read from.
+     * @param end       Position after the last record in that segment.
+     */
+    public record Batch(List<SpooledRecord> records, long segmentId, int end) {
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int ackedPosition;
+        private int writePosition;
+        // Records between the acked and the write position
+        private int records;
+        private boolean sealed;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(long id, Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException("Not a spool segment: " + path);
+            }
+            return new Segment(id, path, channel, buffer);
+        }
+
+        /**
+         * Finds the end of the valid frames and counts the unacked ones.
+         */
+        void scan() {
+            int limit = buffer.capacity();
+            int acked = buffer.getInt(ACKED_POSITION_OFFSET);
+            int position = HEADER_SIZE;
+            int unacked = 0;
+            CRC32C crc = new CRC32C();
+            while (position + FRAME_OVERHEAD <= limit) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > limit - position - FRAME_OVERHEAD) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position + FRAME_OVERHEAD, length));
+                if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                    break;
+                }
+                if (position >= acked) {
+                    unacked++;
+                }
+                position += FRAME_OVERHEAD + length;
+            }
+            writePosition = position;
+            ackedPosition = Math.max(HEADER_SIZE, Math.min(acked, position));
+            records = unacked;
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.shivam.kafka.spool;
+
+/**
+ * A record kept in the {@link SpoolLog}, serialized as it will be sent.
+ *
+ * @param topic     The topic to send it to.
+ * @param key       Serialized key, or null.
+ * @param value     Serialized value, or null.
+ * @param timestamp When it was first sent, in epoch milliseconds.
+ *
+ * @author Shivam Srivastav
+ */
+public record SpooledRecord(String topic, byte[] key, byte[] value, long timestamp) {
+}
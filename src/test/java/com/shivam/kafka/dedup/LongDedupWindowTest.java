@@ -0,0 +1,157 @@
+package com.shivam.kafka.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author Shivam Srivastav
+ */
+class LongDedupWindowTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void keysExpireAfterTtl(boolean offHeap) {
+        LongDedupWindow window = new LongDedupWindow(16, 100, offHeap);
+
+        assertThat(window.add(1, 1_000)).isTrue();
+        assertThat(window.add(2, 1_050)).isTrue();
+        assertThat(window.add(1, 1_060)).isFalse();
+
+        assertThat(window.contains(1, 1_100)).isTrue();
+        assertThat(window.contains(1, 1_101)).isFalse();
+        assertThat(window.contains(2, 1_101)).isTrue();
+        assertThat(window.size()).isEqualTo(1);
+        assertThat(window.expiredEvictions()).isEqualTo(1);
+
+        // an expired key can be added again
+        assertThat(window.add(1, 1_120)).isTrue();
+        assertThat(window.contains(2, 1_151)).isFalse();
+        assertThat(window.contains(1, 1_151)).isTrue();
+        assertThat(window.expiredEvictions()).isEqualTo(2);
+        assertThat(window.capacityEvictions()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void oldestKeyIsEvictedWhenFull(boolean offHeap) {
+        LongDedupWindow window = new LongDedupWindow(3, 60_000, offHeap);
+
+        window.add(10, 0);
+        window.add(20, 1);
+        window.add(30, 2);
+        assertThat(window.add(40, 3)).isTrue();
+
+        assertThat(window.size()).isEqualTo(3);
+        assertThat(window.contains(10, 3)).isFalse();
+        assertThat(window.contains(20, 3)).isTrue();
+        assertThat(window.contains(30, 3)).isTrue();
+        assertThat(window.contains(40, 3)).isTrue();
+        assertThat(window.capacityEvictions()).isEqualTo(1);
+        assertThat(window.expiredEvictions()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void minValueKeyIsTracked(boolean offHeap) {
+        LongDedupWindow window = new LongDedupWindow(2, 60_000, offHeap);
+
+        assertThat(window.contains(Long.MIN_VALUE, 0)).isFalse();
+        assertThat(window.add(Long.MIN_VALUE, 0)).isTrue();
+        assertThat(window.add(Long.MIN_VALUE, 1)).isFalse();
+        window.add(1, 2);
+        window.add(2, 3);
+
+        assertThat(window.contains(Long.MIN_VALUE, 3)).isFalse();
+        assertThat(window.contains(1, 3)).isTrue();
+    }
+
+    /**
+     * Keys sharing a home slot form probe chains; evicting from the middle of
+     * a chain and inserting again must not lose or resurrect any key.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void collisionChainsSurviveDeleteAndReinsert(boolean offHeap) {
+        int capacity = 8;
+        LongDedupWindow window = new LongDedupWindow(capacity, 60_000, offHeap);
+        long[] colliding = collidingKeys(16, 6);
+
+        for (long key : colliding) {
+            window.add(key, 0);
+        }
+        // evict the first two links of the chain
+        window.add(1_000_001, 1);
+        window.add(1_000_002, 1);
+        window.add(1_000_003, 1);
+        window.add(1_000_004, 1);
+
+        assertThat(window.contains(colliding[0], 1)).isFalse();
+        assertThat(window.contains(colliding[1], 1)).isFalse();
+        for (int i = 2; i < colliding.length; i++) {
+            assertThat(window.contains(colliding[i], 1)).as("key %d", colliding[i]).isTrue();
+        }
+        assertThat(window.add(colliding[0], 2)).isTrue();
+        assertThat(window.add(colliding[3], 2)).isFalse();
+        assertThat(window.contains(colliding[0], 2)).isTrue();
+        assertThat(window.contains(colliding[2], 2)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void matchesReferenceModel(boolean offHeap) {
+        int capacity = 64;
+        long ttl = 50;
+        LongDedupWindow window = new LongDedupWindow(capacity, ttl, offHeap);
+        Deque<long[]> order = new ArrayDeque<>();
+        Set<Long> present = new HashSet<>();
+        Random random = new Random(42);
+
+        long now = 0;
+        for (int step = 0; step < 200_000; step++) {
+            now += random.nextInt(3);
+            // small key space, so chains form and keys come back after eviction
+            long key = random.nextInt(256) * 1024L;
+            while (!order.isEmpty() && order.peekFirst()[1] < now - ttl) {
+                present.remove(order.pollFirst()[0]);
+            }
+            if (random.nextBoolean()) {
+                assertThat(window.contains(key, now)).isEqualTo(present.contains(key));
+            } else {
+                boolean added = !present.contains(key);
+                if (added) {
+                    if (order.size() == capacity) {
+                        present.remove(order.pollFirst()[0]);
+                    }
+                    order.addLast(new long[] { key, now });
+                    present.add(key);
+                }
+                assertThat(window.add(key, now)).isEqualTo(added);
+            }
+            assertThat(window.size()).isEqualTo(present.size());
+        }
+    }
+
+    /**
+     * Keys whose home slot is 0 in a table of the given size; repeats the
+     * window's hash.
+     */
+    private static long[] collidingKeys(int tableSize, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            if (((int) (h ^ (h >>> 32)) & (tableSize - 1)) == 0) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
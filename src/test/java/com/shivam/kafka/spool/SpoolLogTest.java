@@ -0,0 +1,196 @@
+package com.shivam.kafka.spool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Shivam Srivastav
+ */
+class SpoolLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int HEADER_SIZE = 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsAreReadBackInOrderAcrossSegments() throws IOException {
+        try (SpoolLog log = SpoolLog.open(dir, 128, false)) {
+            for (int i = 1; i <= 5; i++) {
+                log.append(record("value-" + i));
+            }
+            assertThat(log.depth()).isEqualTo(5);
+            assertThat(log.segments()).isGreaterThan(1);
+
+            StringBuilder read = new StringBuilder();
+            SpoolLog.Batch batch = log.next(10);
+            while (!batch.records().isEmpty()) {
+                values(batch).forEach(value -> read.append(value).append(' '));
+                log.ack(batch);
+                batch = log.next(10);
+            }
+            assertThat(read.toString()).isEqualTo("value-1 value-2 value-3 value-4 value-5 ");
+            assertThat(log.depth()).isZero();
+            assertThat(log.bytes()).isZero();
+        }
+    }
+
+    @Test
+    void drainedActiveSegmentIsDeleted() throws IOException {
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            log.append(record("a"));
+            log.append(record("b"));
+            assertThat(segmentFiles()).hasSize(1);
+
+            log.ack(log.next(10));
+
+            assertThat(log.segments()).isZero();
+            assertThat(segmentFiles()).isEmpty();
+
+            // appends go to a fresh segment
+            log.append(record("c"));
+            assertThat(log.segments()).isEqualTo(1);
+            assertThat(segmentFiles()).hasSize(1);
+            SpoolLog.Batch batch = log.next(10);
+            assertThat(values(batch)).containsExactly("c");
+            log.ack(batch);
+            assertThat(segmentFiles()).isEmpty();
+        }
+    }
+
+    @Test
+    void ackedPositionSurvivesReopen() throws IOException {
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            for (int i = 1; i <= 5; i++) {
+                log.append(record("value-" + i));
+            }
+            log.ack(log.next(2));
+        }
+
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            assertThat(log.depth()).isEqualTo(3);
+            assertThat(values(log.next(10))).containsExactly("value-3", "value-4", "value-5");
+        }
+    }
+
+    @Test
+    void tornTailIsDroppedOnRecovery() throws IOException {
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            log.append(record("a"));
+            log.append(record("b"));
+        }
+        // a crash after the length of a third frame was written, but not its
+        // payload and CRC
+        Path segment = segmentFiles().get(0);
+        writeInt(segment, framePositions(segment).get(2), 40);
+
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            assertThat(log.depth()).isEqualTo(2);
+            assertThat(values(log.next(10))).containsExactly("a", "b");
+        }
+    }
+
+    @Test
+    void badCrcEndsTheSegment() throws IOException {
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            log.append(record("a"));
+            log.append(record("b"));
+            log.append(record("c"));
+        }
+        Path segment = segmentFiles().get(0);
+        int second = framePositions(segment).get(1);
+        // flip a byte in the payload of the second frame
+        int payloadByte = second + 2 * Integer.BYTES + 1;
+        writeByte(segment, payloadByte, (byte) ~readByte(segment, payloadByte));
+
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            assertThat(log.depth()).isEqualTo(1);
+
+            // the recovered segment is sealed: appends go to a new one, behind it
+            log.append(record("d"));
+            assertThat(log.segments()).isEqualTo(2);
+            SpoolLog.Batch batch = log.next(10);
+            assertThat(values(batch)).containsExactly("a");
+            log.ack(batch);
+            assertThat(values(log.next(10))).containsExactly("d");
+        }
+    }
+
+    @Test
+    void recordsWithoutKeyOrValueRoundTrip() throws IOException {
+        try (SpoolLog log = SpoolLog.open(dir, SEGMENT_SIZE, false)) {
+            log.append(new SpooledRecord("topic", "key".getBytes(StandardCharsets.UTF_8), null, 42));
+            log.append(new SpooledRecord("topic", null, new byte[0], 43));
+
+            List<SpooledRecord> records = log.next(10).records();
+            assertThat(records.get(0).key()).asString(StandardCharsets.UTF_8).isEqualTo("key");
+            assertThat(records.get(0).value()).isNull();
+            assertThat(records.get(0).timestamp()).isEqualTo(42);
+            assertThat(records.get(1).key()).isNull();
+            assertThat(records.get(1).value()).isEmpty();
+        }
+    }
+
+    private static SpooledRecord record(String value) {
+        return new SpooledRecord("topic", null, value.getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    private static List<String> values(SpoolLog.Batch batch) {
+        return batch.records().stream().map(record -> new String(record.value(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".spool")).sorted().toList();
+        }
+    }
+
+    /**
+     * Positions of the frames in a segment, and of the end of the written
+     * part last.
+     */
+    private static List<Integer> framePositions(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Integer> positions = new ArrayList<>();
+        int position = HEADER_SIZE;
+        int length;
+        while ((length = buffer.getInt(position)) > 0) {
+            positions.add(position);
+            position += 2 * Integer.BYTES + length;
+        }
+        positions.add(position);
+        return positions;
+    }
+
+    private static byte readByte(Path file, int position) throws IOException {
+        return Files.readAllBytes(file)[position];
+    }
+
+    private static void writeByte(Path file, int position, byte value) throws IOException {
+        write(file, position, ByteBuffer.wrap(new byte[] { value }));
+    }
+
+    private static void writeInt(Path file, int position, int value) throws IOException {
+        write(file, position, ByteBuffer.allocate(Integer.BYTES).putInt(0, value));
+    }
+
+    private static void write(Path file, int position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+}